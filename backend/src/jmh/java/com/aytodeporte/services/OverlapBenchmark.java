@@ -0,0 +1,100 @@
+// Benchmark de las comprobaciones de solape de ReservationOverlapValidator sobre historiales sintéticos.
+// La consulta de BD se sustituye por un rango en memoria: se mide el servicio, no MySQL.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.User;
+import com.aytodeporte.repositories.ReservationRepository;
+import com.aytodeporte.utils.BusinessException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class OverlapBenchmark {
+
+    private static final int PROBES = 4096;
+    private static final int DURATION = 90;
+
+    @Param({"1000", "100000", "1000000"})
+    public int reservations;
+
+    private ReservationOverlapValidator indexed;
+    private ReservationOverlapValidator queried;
+
+    // Sondas aleatorias sobre el historial: aproximadamente la mitad chocan con una reserva
+    private final Installation[] installations = new Installation[PROBES];
+    private final User[] users = new User[PROBES];
+    private final LocalDateTime[] starts = new LocalDateTime[PROBES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticHistory history = new SyntheticHistory(reservations, 42L);
+        ReservationRepository repository = history.reservationRepository();
+        SlotHoldManager holds = SyntheticHistory.emptyHoldManager();
+
+        InstallationOverlapIndex index = new InstallationOverlapIndex(repository);
+        index.rebuild();
+        indexed = new ReservationOverlapValidator(repository, index, holds);
+        // Índice sin cargar: el servicio recurre a la consulta
+        queried = new ReservationOverlapValidator(repository, new InstallationOverlapIndex(repository), holds);
+
+        Random random = new Random(7L);
+        for (int i = 0; i < PROBES; i++) {
+            installations[i] = history.installation(random.nextInt(SyntheticHistory.INSTALLATIONS));
+            users[i] = history.user(random.nextInt(history.users.size()));
+            int slot = random.nextInt(SlotCalendar.SLOTS_PER_DAY - DURATION / ReservationService.SLOT_MINUTES);
+            starts[i] = history.firstDay.plusDays(random.nextInt(history.days))
+                    .atTime(ReservationService.OPEN_TIME)
+                    .plusMinutes((long) slot * ReservationService.SLOT_MINUTES);
+        }
+    }
+
+    @Benchmark
+    public boolean installationOverlapIndexed() {
+        int i = next++ & (PROBES - 1);
+        return conflicts(() -> indexed.validateInstallationOverlaps(installations[i], 0L, starts[i], DURATION));
+    }
+
+    @Benchmark
+    public boolean installationOverlapQuery() {
+        int i = next++ & (PROBES - 1);
+        return conflicts(() -> queried.validateInstallationOverlaps(installations[i], 0L, starts[i], DURATION));
+    }
+
+    @Benchmark
+    public boolean userOverlap() {
+        int i = next++ & (PROBES - 1);
+        return conflicts(() -> indexed.validateUserOverlaps(users[i], starts[i], DURATION));
+    }
+
+    // Un choque se señala con BusinessException, también en producción: su coste entra en la medida
+    private static boolean conflicts(Runnable check) {
+        try {
+            check.run();
+            return false;
+        } catch (BusinessException ex) {
+            return true;
+        }
+    }
+}
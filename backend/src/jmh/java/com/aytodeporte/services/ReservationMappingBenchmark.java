@@ -0,0 +1,65 @@
+// Benchmark de las funciones puras del camino de reserva: cálculo de importe y mapeo a ReservationResponse.
+// No dependen del tamaño del historial, así que se parametrizan por duración.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.ReservationResponse;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.Reservation;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationMappingBenchmark {
+
+    @Param({"60", "120", "180"})
+    public int durationMinutes;
+
+    private Reservation reservation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(18).withMinute(0).withSecond(0).withNano(0);
+        reservation = Reservation.builder()
+                .id(1L)
+                .user(User.builder().id(2L).email("prueba1@demo.com").build())
+                .installation(Installation.builder().id(1L).name("Pádel Vieja V1").build())
+                .start(start)
+                .end(start.plusMinutes(durationMinutes))
+                .amount(ReservationService.calculateAmount(durationMinutes))
+                .code("123456")
+                .status(ReservationStatus.CONFIRMED)
+                .build();
+    }
+
+    @Benchmark
+    public BigDecimal calculateAmount() {
+        return ReservationService.calculateAmount(durationMinutes);
+    }
+
+    @Benchmark
+    public ReservationResponse toResponse() {
+        return ReservationResponse.fromEntity(reservation);
+    }
+}
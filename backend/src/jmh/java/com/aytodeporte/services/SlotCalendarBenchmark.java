@@ -0,0 +1,68 @@
+// Benchmark de la generación de slots de getDailyAvailability (SlotCalendar.render) sobre historiales sintéticos.
+// Mide el día ya en memoria (máscaras cacheadas) y el día recalculado desde el repositorio.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.TimeSlotResponse;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.models.Installation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SlotCalendarBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int reservations;
+
+    private SyntheticHistory history;
+    private SlotCalendar calendar;
+    private Installation installation;
+    private LocalDate busyDay;
+    private int next;
+
+    private static final BlockRuleChangedEvent RESET = new BlockRuleChangedEvent(0L, false);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = new SyntheticHistory(reservations, 42L);
+        calendar = new SlotCalendar(history.reservationRepository(),
+                SyntheticHistory.emptyBlockSnapshot(), SyntheticHistory.emptyHoldManager());
+        installation = history.installation(0);
+        busyDay = history.firstDay;
+        calendar.render(installation, busyDay);
+    }
+
+    // Estado estable: máscaras del día ya en memoria, solo se construye la lista de slots
+    @Benchmark
+    public List<TimeSlotResponse> renderCachedDay() {
+        return calendar.render(installation, busyDay);
+    }
+
+    // Tras una invalidación: consulta de reservas del día, máscaras y lista de slots
+    @Benchmark
+    public List<TimeSlotResponse> renderAfterInvalidation() {
+        calendar.onBlockRuleChanged(RESET);
+        int i = next++;
+        return calendar.render(history.installation(i), history.firstDay.plusDays(i % history.days));
+    }
+}
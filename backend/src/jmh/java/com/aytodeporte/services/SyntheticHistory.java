@@ -0,0 +1,166 @@
+// Historial sintético de reservas confirmadas para los benchmarks, con consultas equivalentes en memoria.
+// Las reservas se reparten entre instalaciones y usuarios desde mañana en adelante, sin solapes por instalación.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.BlockInterval;
+import com.aytodeporte.dto.ReservationInterval;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.InstallationType;
+import com.aytodeporte.models.User;
+import com.aytodeporte.repositories.BlockRepository;
+import com.aytodeporte.repositories.BlockRuleRepository;
+import com.aytodeporte.repositories.ReservationRepository;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.aytodeporte.services.ReservationService.CLOSE_TIME;
+import static com.aytodeporte.services.ReservationService.OPEN_TIME;
+
+final class SyntheticHistory {
+
+    static final int INSTALLATIONS = 20;
+
+    // Duraciones y huecos que se repiten al rellenar cada día (unas 7 reservas por día e instalación)
+    private static final int[] DURATIONS = {60, 90, 120, 90, 60, 180, 90};
+    private static final int[] GAPS = {0, 30, 0, 60, 30, 0, 30};
+
+    final List<Installation> installations = new ArrayList<>();
+    final List<User> users = new ArrayList<>();
+    final List<ReservationInterval> all = new ArrayList<>();
+    final LocalDate firstDay;
+    final int days;
+
+    // Lo que devolverían las consultas con índice de la BD
+    private final Map<Long, Map<LocalDate, List<ReservationInterval>>> byInstallationDay = new HashMap<>();
+    private final Map<Long, List<ReservationInterval>> byUser = new HashMap<>();
+
+    SyntheticHistory(int reservations, long seed) {
+        Random random = new Random(seed);
+        this.firstDay = LocalDate.now().plusDays(1);
+
+        for (long id = 1; id <= INSTALLATIONS; id++) {
+            installations.add(Installation.builder()
+                    .id(id)
+                    .name("Pista " + id)
+                    .type(InstallationType.values()[(int) (id % InstallationType.values().length)])
+                    .active(true)
+                    .build());
+        }
+        int userCount = Math.max(10, reservations / 50);
+        for (long id = 1; id <= userCount; id++) {
+            users.add(User.builder().id(id).email("usuario" + id + "@demo.com").build());
+        }
+
+        int perInstallation = (reservations + INSTALLATIONS - 1) / INSTALLATIONS;
+        int maxDays = 0;
+        long nextId = 1;
+        for (Installation installation : installations) {
+            LocalDate day = firstDay;
+            LocalDateTime cursor = day.atTime(OPEN_TIME);
+            int k = random.nextInt(DURATIONS.length);
+            for (int n = 0; n < perInstallation && all.size() < reservations; n++, k++) {
+                LocalDateTime start = cursor.plusMinutes(GAPS[k % GAPS.length]);
+                LocalDateTime end = start.plusMinutes(DURATIONS[k % DURATIONS.length]);
+                if (end.isAfter(day.atTime(CLOSE_TIME))) {
+                    day = day.plusDays(1);
+                    start = day.atTime(OPEN_TIME);
+                    end = start.plusMinutes(DURATIONS[k % DURATIONS.length]);
+                }
+                long userId = users.get(random.nextInt(userCount)).getId();
+                add(new ReservationInterval(nextId++, installation.getId(), userId, start, end));
+                cursor = end;
+            }
+            maxDays = Math.max(maxDays, (int) Duration.between(firstDay.atStartOfDay(), day.atStartOfDay()).toDays() + 1);
+        }
+        this.days = maxDays;
+        byUser.values().forEach(list -> list.sort(Comparator.comparing(ReservationInterval::start)));
+    }
+
+    private void add(ReservationInterval r) {
+        all.add(r);
+        byInstallationDay.computeIfAbsent(r.installationId(), id -> new HashMap<>())
+                .computeIfAbsent(r.start().toLocalDate(), d -> new ArrayList<>())
+                .add(r);
+        byUser.computeIfAbsent(r.userId(), id -> new ArrayList<>()).add(r);
+    }
+
+    Installation installation(int index) {
+        return installations.get(index % INSTALLATIONS);
+    }
+
+    User user(int index) {
+        return users.get(index % users.size());
+    }
+
+    // Reservas de la instalación que se solapan con [start, end): las del día de start y del anterior
+    List<ReservationInterval> overlappingByInstallation(Long installationId, LocalDateTime start, LocalDateTime end) {
+        Map<LocalDate, List<ReservationInterval>> days = byInstallationDay.getOrDefault(installationId, Map.of());
+        List<ReservationInterval> found = new ArrayList<>();
+        for (LocalDate date = start.toLocalDate().minusDays(1); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            for (ReservationInterval r : days.getOrDefault(date, List.of())) {
+                if (r.start().isBefore(end) && r.end().isAfter(start)) {
+                    found.add(r);
+                }
+            }
+        }
+        return found;
+    }
+
+    // Rango sobre las reservas del usuario ordenadas por inicio, como idx_reservas_usuario_inicio
+    List<ReservationInterval> overlappingByUser(Long userId, LocalDateTime earliestStart,
+                                                LocalDateTime start, LocalDateTime end) {
+        List<ReservationInterval> list = byUser.getOrDefault(userId, List.of());
+        int lo = 0;
+        int hi = list.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (list.get(mid).start().isBefore(earliestStart)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        List<ReservationInterval> found = new ArrayList<>();
+        for (int i = lo; i < list.size() && list.get(i).start().isBefore(end); i++) {
+            if (list.get(i).end().isAfter(start)) {
+                found.add(list.get(i));
+            }
+        }
+        return found;
+    }
+
+    // ===================== REPOSITORIOS SOBRE EL HISTORIAL =====================
+
+    ReservationRepository reservationRepository() {
+        return Stubs.of(ReservationRepository.class, Map.of(
+                "findOverlappingByInstallation", args -> overlappingByInstallation(
+                        ((Installation) args[0]).getId(), (LocalDateTime) args[3], (LocalDateTime) args[4]),
+                "findOverlappingByUser", args -> overlappingByUser(
+                        ((User) args[0]).getId(), (LocalDateTime) args[2], (LocalDateTime) args[3], (LocalDateTime) args[4]),
+                "findIntervalsEndingAfter", args -> all,
+                "countByStatusAndEndAfter", args -> (long) all.size()
+        ));
+    }
+
+    // Sin bloqueos: se mide el coste de las reservas
+    static BlockSnapshot emptyBlockSnapshot() {
+        BlockRepository blocks = Stubs.of(BlockRepository.class,
+                Map.of("findAllIntervals", args -> List.<BlockInterval>of()));
+        BlockRuleRepository rules = Stubs.of(BlockRuleRepository.class,
+                Map.of("findAllWithInstallation", args -> List.of()));
+        return new BlockSnapshot(blocks, new BlockRuleCalendar(rules));
+    }
+
+    static SlotHoldManager emptyHoldManager() {
+        return new SlotHoldManager(event -> { }, Duration.ofMinutes(5), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,47 @@
+// Comprobación final sobre la BD: pares de reservas confirmadas que se solapan y reservas sin sus tramos reclamados.
+// Debe dar cero en todo; cualquier otro valor es una carrera que las validaciones no han cubierto.
+
+package com.aytodeporte.loadsim;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+record DoubleBookings(long installation, long user, long unclaimed) {
+
+    private static final String INSTALLATION_OVERLAPS = """
+            SELECT COUNT(*) FROM reservas a
+            JOIN reservas b ON a.instalacion_id = b.instalacion_id AND a.id < b.id
+            WHERE a.estado = 'confirmada' AND b.estado = 'confirmada'
+              AND a.inicio < b.fin AND b.inicio < a.fin
+            """;
+
+    private static final String USER_OVERLAPS = """
+            SELECT COUNT(*) FROM reservas a
+            JOIN reservas b ON a.usuario_id = b.usuario_id AND a.id < b.id
+            WHERE a.estado = 'confirmada' AND b.estado = 'confirmada'
+              AND a.inicio < b.fin AND b.inicio < a.fin
+            """;
+
+    private static final String UNCLAIMED = """
+            SELECT COUNT(*) FROM reservas r
+            WHERE r.estado = 'confirmada'
+              AND (SELECT COUNT(*) FROM reservas_slots s WHERE s.reserva_id = r.id) * 30
+                  <> TIMESTAMPDIFF(MINUTE, r.inicio, r.fin)
+            """;
+
+    static DoubleBookings count(Connection connection) throws SQLException {
+        return new DoubleBookings(
+                single(connection, INSTALLATION_OVERLAPS),
+                single(connection, USER_OVERLAPS),
+                single(connection, UNCLAIMED));
+    }
+
+    private static long single(Connection connection, String sql) throws SQLException {
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+// Base de datos H2 en memoria (modo MySQL) sembrada con scriptSaelices.txt y con los usuarios virtuales.
+// Lo que H2 no entiende del script se adapta aquí, sin tocar el script original.
+
+package com.aytodeporte.loadsim;
+
+import org.h2.tools.RunScript;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+final class H2Seed {
+
+    static final String URL = "jdbc:h2:mem:loadsim;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    static final String USER_PASSWORD = "loadsim";
+
+    private static final Pattern CREATE_DATABASE =
+            Pattern.compile("DROP DATABASE.*?USE aytodeporte;\\s*", Pattern.DOTALL);
+    // El trigger de cancelación tardía no se porta: la misma regla de 4 horas la aplica ReservationService
+    private static final Pattern TRIGGER =
+            Pattern.compile("DELIMITER \\$\\$.*?DELIMITER ;\\s*", Pattern.DOTALL);
+    // El INSERT ... WITH RECURSIVE de reservas_slots se sustituye por claimSeedSlots
+    private static final Pattern RECURSIVE_SLOTS =
+            Pattern.compile("INSERT INTO reservas_slots.*?FROM tramos;", Pattern.DOTALL);
+
+    private H2Seed() {
+    }
+
+    static String toH2(String mysqlScript) {
+        String script = CREATE_DATABASE.matcher(mysqlScript).replaceFirst("");
+        script = TRIGGER.matcher(script).replaceAll("");
+        return RECURSIVE_SLOTS.matcher(script).replaceAll("");
+    }
+
+    static void seed(Connection connection, Path script, int users, String passwordHash)
+            throws IOException, SQLException {
+        RunScript.execute(connection, new StringReader(toH2(Files.readString(script, StandardCharsets.UTF_8))));
+        claimSeedSlots(connection);
+        insertUsers(connection, users, passwordHash);
+    }
+
+    static String email(int index) {
+        return "loadsim" + index + "@demo.com";
+    }
+
+    static List<Long> activeInstallations(Connection connection, int limit) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id FROM instalaciones WHERE activa = 1 ORDER BY id")) {
+            while (rs.next() && (limit == 0 || ids.size() < limit)) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    // Tramos de 30 minutos de las reservas confirmadas del script, como hacía el INSERT recursivo
+    private static void claimSeedSlots(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(
+                     "SELECT id, instalacion_id, inicio, fin FROM reservas WHERE estado = 'confirmada'");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO reservas_slots (instalacion_id, inicio_slot, reserva_id) VALUES (?, ?, ?)")) {
+            while (rs.next()) {
+                LocalDateTime end = rs.getTimestamp(4).toLocalDateTime();
+                for (LocalDateTime slot = rs.getTimestamp(3).toLocalDateTime(); slot.isBefore(end);
+                     slot = slot.plusMinutes(30)) {
+                    insert.setLong(1, rs.getLong(2));
+                    insert.setTimestamp(2, Timestamp.valueOf(slot));
+                    insert.setLong(3, rs.getLong(1));
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void insertUsers(Connection connection, int users, String passwordHash) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO usuarios (nombre, apellido, email, password_hash, rol) VALUES (?, ?, ?, ?, 'USUARIO')")) {
+            for (int i = 1; i <= users; i++) {
+                insert.setString(1, "Usuario" + i);
+                insert.setString(2, "Simulado");
+                insert.setString(3, email(i));
+                insert.setString(4, passwordHash);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
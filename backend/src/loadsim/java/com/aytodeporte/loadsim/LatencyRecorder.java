@@ -0,0 +1,55 @@
+// Latencias de un endpoint guardadas en bruto para calcular percentiles exactos al final de la simulación.
+// Los usuarios virtuales escriben desde muchos hilos; el lock solo protege el crecimiento del array.
+
+package com.aytodeporte.loadsim;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class LatencyRecorder {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] nanos = new long[1024];
+    private int size;
+    private int errors;
+
+    void record(long elapsedNanos, boolean error) {
+        lock.lock();
+        try {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = elapsedNanos;
+            if (error) {
+                errors++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    Summary summarize() {
+        lock.lock();
+        try {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new Summary(size, errors,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Percentil por rango más cercano sobre las muestras ordenadas
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    record Summary(int count, int errors, long p50, long p99, long p999, long max) {
+    }
+}
@@ -0,0 +1,150 @@
+// Simulación de carga de la apertura de la ventana de reserva con la aplicación completa sobre H2 en memoria.
+// Arranca Spring Boot en un puerto libre, lanza los usuarios virtuales con una curva de llegadas y emite el informe.
+
+package com.aytodeporte.loadsim;
+
+import com.aytodeporte.AytoDeporteApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public final class OpeningRushSimulation {
+
+    // Parámetros propios: sim.clave=valor (con o sin doble guion)
+    private static final String SIM_PREFIX = "sim.";
+
+    // Último día dentro de la ventana de 15 días: el que se abre y todos quieren
+    private static final int TARGET_DAY_OFFSET = 14;
+
+    private OpeningRushSimulation() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> simArgs = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            String bare = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (bare.startsWith(SIM_PREFIX) && bare.contains("=")) {
+                int eq = bare.indexOf('=');
+                simArgs.put(bare.substring(SIM_PREFIX.length(), eq), bare.substring(eq + 1));
+            } else {
+                springArgs.add(arg);
+            }
+        }
+        SimulationConfig config = SimulationConfig.from(simArgs);
+
+        Connection db = DriverManager.getConnection(H2Seed.URL, "sa", "");
+        H2Seed.seed(db, config.script(), config.users(), new BCryptPasswordEncoder().encode(H2Seed.USER_PASSWORD));
+        List<Long> installations = H2Seed.activeInstallations(db, config.installations());
+
+        // Como propiedades de sistema para que prevalezcan sobre application.properties;
+        // los argumentos de línea de comandos siguen pudiendo sobrescribirlas
+        appProperties(config).forEach(System::setProperty);
+        ConfigurableApplicationContext context =
+                SpringApplication.run(AytoDeporteApplication.class, springArgs.toArray(String[]::new));
+
+        try {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            String threading = context.getEnvironment().getProperty("spring.threads.virtual.enabled", Boolean.class,
+                    false) && Runtime.version().feature() >= 21
+                    ? "virtuales (Java " + Runtime.version().feature() + ")"
+                    : "plataforma (Java " + Runtime.version().feature() + ")";
+
+            SimulationStats stats = new SimulationStats();
+            double elapsedSeconds = run(config, baseUrl, installations, stats);
+
+            String report = stats.report(config, threading, elapsedSeconds, DoubleBookings.count(db));
+            new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8).println(report);
+            if (config.report().getParent() != null) {
+                Files.createDirectories(config.report().getParent());
+            }
+            Files.writeString(config.report(), report, StandardCharsets.UTF_8);
+        } finally {
+            context.close();
+            db.close();
+        }
+    }
+
+    private static double run(SimulationConfig config, String baseUrl, List<Long> installations,
+                              SimulationStats stats) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ObjectMapper json = new ObjectMapper();
+        LocalDate day = LocalDate.now().plusDays(TARGET_DAY_OFFSET);
+        SplittableRandom random = new SplittableRandom(config.seed());
+
+        long startNanos = System.nanoTime();
+        ExecutorService users = userExecutor();
+        for (int i = 1; i <= config.users(); i++) {
+            long arrival = startNanos + (long) (arrivalSeconds(config, random) * 1_000_000_000L);
+            users.execute(new VirtualUser(i, arrival, baseUrl, http, json, config, stats,
+                    installations, day, random.split()));
+        }
+        users.shutdown();
+        users.awaitTermination(1, TimeUnit.HOURS);
+        return (System.nanoTime() - startNanos) / 1_000_000_000.0;
+    }
+
+    // Curva de llegadas: una avalancha que decae exponencialmente al abrir y un goteo uniforme después
+    private static double arrivalSeconds(SimulationConfig config, SplittableRandom random) {
+        if (random.nextDouble() < config.rushShare()) {
+            double delay = -Math.log(1 - random.nextDouble()) * config.rushDecaySeconds();
+            return Math.min(delay, config.spreadSeconds());
+        }
+        return random.nextDouble() * config.spreadSeconds();
+    }
+
+    // Cada usuario virtual bloquea su hilo en las llamadas HTTP: con Java 21 se usan hilos virtuales
+    // para no limitar la concurrencia del cliente; en versiones anteriores, un pool sin límite
+    private static ExecutorService userExecutor() {
+        try {
+            Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) virtual.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    // Misma BD que ya se ha sembrado; los límites por IP se relajan porque todos los usuarios
+    // virtuales salen de 127.0.0.1, el resto de la configuración es la de producción
+    private static Map<String, String> appProperties(SimulationConfig config) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("server.port", "0");
+        // Sin puerto de gestión fijo: varias simulaciones pueden correr a la vez
+        properties.put("management.server.port", "0");
+        properties.put("spring.datasource.url", H2Seed.URL);
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.sql.init.mode", "never");
+        properties.put("spring.devtools.restart.enabled", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("aytodeporte.rate-limit.login.burst", String.valueOf(config.users() * 2));
+        properties.put("aytodeporte.rate-limit.register.burst", String.valueOf(config.users() * 2));
+        return properties;
+    }
+}
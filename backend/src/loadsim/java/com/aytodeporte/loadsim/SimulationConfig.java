@@ -0,0 +1,55 @@
+// Parámetros de la simulación de apertura de la ventana de reserva, leídos de argumentos sim.clave=valor.
+// El resto de argumentos se pasan tal cual a Spring Boot (por ejemplo --spring.profiles.active=virtual).
+
+package com.aytodeporte.loadsim;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+record SimulationConfig(
+        int users,
+        double rushShare,
+        double rushDecaySeconds,
+        double spreadSeconds,
+        int thinkMinMillis,
+        int thinkMaxMillis,
+        double cancelRatio,
+        int bookingAttempts,
+        int installations,
+        long seed,
+        Path script,
+        Path report
+) {
+
+    static SimulationConfig from(Map<String, String> args) {
+        return new SimulationConfig(
+                Integer.parseInt(args.getOrDefault("users", "500")),
+                // Parte de los usuarios que llega en la avalancha de la apertura; el resto se reparte
+                Double.parseDouble(args.getOrDefault("rush-share", "0.8")),
+                // Las llegadas de la avalancha decaen exponencialmente con esta constante
+                Double.parseDouble(args.getOrDefault("rush-decay-seconds", "5")),
+                Double.parseDouble(args.getOrDefault("spread-seconds", "60")),
+                Integer.parseInt(args.getOrDefault("think-min-millis", "200")),
+                Integer.parseInt(args.getOrDefault("think-max-millis", "1500")),
+                Double.parseDouble(args.getOrDefault("cancel-ratio", "0.2")),
+                Integer.parseInt(args.getOrDefault("booking-attempts", "3")),
+                // 0 = todas las instalaciones activas
+                Integer.parseInt(args.getOrDefault("installations", "0")),
+                Long.parseLong(args.getOrDefault("seed", "42")),
+                Path.of(args.getOrDefault("script", "../scriptSaelices.txt")),
+                Path.of(args.getOrDefault("report", "target/loadsim-report.txt"))
+        );
+    }
+
+    @Override
+    public String toString() {
+        return "usuarios=" + users
+                + ", avalancha=" + rushShare + " (decaimiento " + rushDecaySeconds + " s)"
+                + ", reparto=" + spreadSeconds + " s"
+                + ", pausa=" + thinkMinMillis + "-" + thinkMaxMillis + " ms"
+                + ", cancelaciones=" + cancelRatio
+                + ", intentos de reserva=" + bookingAttempts
+                + ", instalaciones=" + (installations == 0 ? "todas" : installations)
+                + ", semilla=" + seed;
+    }
+}
@@ -0,0 +1,78 @@
+// Métricas agregadas de la simulación: latencias por endpoint, errores por mensaje y resultado de cada usuario.
+// Genera el informe de texto que se imprime al final y se guarda en target/.
+
+package com.aytodeporte.loadsim;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+final class SimulationStats {
+
+    // Orden del informe: el del flujo de un usuario
+    static final String LOGIN = "POST /users/login";
+    static final String AVAILABILITY = "GET  /reservations/availability";
+    static final String CREATE = "POST /reservations";
+    static final String CANCEL = "POST /reservations/{id}/cancel";
+    static final String WAITING_ROOM = "GET  /waiting-room/{ticket}";
+
+    private final Map<String, LatencyRecorder> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    void record(String endpoint, long elapsedNanos, int status, String message) {
+        boolean error = status >= 400;
+        endpoints.computeIfAbsent(endpoint, e -> new LatencyRecorder()).record(elapsedNanos, error);
+        if (error) {
+            String key = endpoint + " | " + status + " | " + (message == null ? "(sin mensaje)" : message);
+            errors.computeIfAbsent(key, k -> new LongAdder()).increment();
+        }
+    }
+
+    void outcome(String name) {
+        outcomes.computeIfAbsent(name, k -> new LongAdder()).increment();
+    }
+
+    String report(SimulationConfig config, String threading, double elapsedSeconds, DoubleBookings doubleBookings) {
+        StringBuilder out = new StringBuilder();
+        out.append("==== Simulación de apertura de la ventana de reserva ====\n");
+        out.append(config).append('\n');
+        out.append("Hilos de petición: ").append(threading)
+                .append(String.format(" | duración: %.1f s%n%n", elapsedSeconds));
+
+        out.append(String.format("%-34s %8s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "peticiones", "errores", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (String endpoint : new String[]{LOGIN, AVAILABILITY, CREATE, CANCEL, WAITING_ROOM}) {
+            LatencyRecorder recorder = endpoints.get(endpoint);
+            if (recorder == null) {
+                continue;
+            }
+            LatencyRecorder.Summary s = recorder.summarize();
+            out.append(String.format("%-34s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    endpoint, s.count(), s.errors(), s.count() / elapsedSeconds,
+                    millis(s.p50()), millis(s.p99()), millis(s.p999()), millis(s.max())));
+        }
+
+        out.append("\n-- Errores (endpoint | estado | mensaje) --\n");
+        if (errors.isEmpty()) {
+            out.append("ninguno\n");
+        }
+        new TreeMap<>(errors).forEach((key, count) ->
+                out.append(String.format("%7d  %s%n", count.sum(), key)));
+
+        out.append("\n-- Resultado por usuario --\n");
+        new TreeMap<>(outcomes).forEach((name, count) ->
+                out.append(String.format("%7d  %s%n", count.sum(), name)));
+
+        out.append("\n-- Dobles reservas (reservas confirmadas solapadas) --\n");
+        out.append(String.format("%7d  misma instalación%n", doubleBookings.installation()));
+        out.append(String.format("%7d  mismo usuario%n", doubleBookings.user()));
+        out.append(String.format("%7d  reservas sin todos sus tramos en reservas_slots%n", doubleBookings.unclaimed()));
+        return out.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,253 @@
+// Usuario virtual de la simulación: login, consulta de disponibilidad, reserva y, a veces, cancelación.
+// Respeta la sala de espera (503 con turno) consultando su turno hasta que le dejan pasar.
+
+package com.aytodeporte.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.random.RandomGenerator;
+
+final class VirtualUser implements Runnable {
+
+    // Franja de máxima demanda: es la que se agota en la apertura
+    private static final LocalTime PRIME_FROM = LocalTime.of(17, 0);
+    private static final LocalTime PRIME_TO = LocalTime.of(22, 0);
+    private static final int[] DURATIONS = {60, 90};
+    // Rechazos por haber perdido la carrera por el tramo: merece la pena volver a mirar la disponibilidad
+    private static final Set<String> CONFLICTS = Set.of(
+            "La instalación ya está reservada en ese intervalo horario",
+            "El horario está retenido temporalmente por otro usuario");
+
+    private final int index;
+    private final long arrivalNanos;
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper json;
+    private final SimulationConfig config;
+    private final SimulationStats stats;
+    private final List<Long> installations;
+    private final LocalDate day;
+    private final RandomGenerator random;
+
+    private String token;
+    private long userId;
+
+    VirtualUser(int index, long arrivalNanos, String baseUrl, HttpClient http, ObjectMapper json,
+                SimulationConfig config, SimulationStats stats, List<Long> installations, LocalDate day,
+                RandomGenerator random) {
+        this.index = index;
+        this.arrivalNanos = arrivalNanos;
+        this.baseUrl = baseUrl;
+        this.http = http;
+        this.json = json;
+        this.config = config;
+        this.stats = stats;
+        this.installations = installations;
+        this.day = day;
+        this.random = random;
+    }
+
+    @Override
+    public void run() {
+        try {
+            sleepUntil(arrivalNanos);
+            stats.outcome(session());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException ex) {
+            stats.outcome("fallo de cliente: " + ex.getClass().getSimpleName());
+        }
+    }
+
+    private String session() throws IOException, InterruptedException {
+        Response login = call(SimulationStats.LOGIN, post("/users/login", Map.of(
+                "email", H2Seed.email(index), "password", H2Seed.USER_PASSWORD)));
+        if (login.status() != 200) {
+            return "sin sesión";
+        }
+        token = login.body().get("token").asText();
+        userId = login.body().get("id").asLong();
+
+        long installationId = installations.get(random.nextInt(installations.size()));
+        int duration = DURATIONS[random.nextInt(DURATIONS.length)];
+
+        for (int attempt = 0; attempt < config.bookingAttempts(); attempt++) {
+            think();
+            Response availability = call(SimulationStats.AVAILABILITY, get("/reservations/availability?installationId="
+                    + installationId + "&date=" + day));
+            if (availability.status() != 200) {
+                return "sin disponibilidad (error)";
+            }
+
+            LocalTime start = pickStart(availability.body(), duration);
+            if (start == null) {
+                // Instalación llena en la franja: se prueba con otra
+                installationId = installations.get(random.nextInt(installations.size()));
+                continue;
+            }
+
+            think();
+            Response created = call(SimulationStats.CREATE, post("/reservations?userId=" + userId
+                    + "&installationId=" + installationId
+                    + "&start=" + encode(day.atTime(start).toString())
+                    + "&duration=" + duration, null));
+            if (created.status() == 200) {
+                return maybeCancel(created.body().get("id").asLong());
+            }
+            if (!CONFLICTS.contains(message(created))) {
+                return "reserva rechazada";
+            }
+            // Otro usuario llegó antes al mismo tramo: se vuelve a mirar la disponibilidad
+        }
+        return "sin hueco tras " + config.bookingAttempts() + " intentos";
+    }
+
+    private String maybeCancel(long reservationId) throws IOException, InterruptedException {
+        if (random.nextDouble() >= config.cancelRatio()) {
+            return "reservado";
+        }
+        think();
+        Response cancelled = call(SimulationStats.CANCEL,
+                post("/reservations/" + reservationId + "/cancel?userId=" + userId, null));
+        return cancelled.status() == 200 ? "reservado y cancelado" : "reservado (cancelación rechazada)";
+    }
+
+    // Inicio al azar entre los tramos libres de la franja punta donde cabe la duración entera
+    private LocalTime pickStart(JsonNode availability, int duration) {
+        List<LocalTime> available = new ArrayList<>();
+        for (JsonNode slot : availability.get("slots")) {
+            if ("DISPONIBLE".equals(slot.get("status").asText())) {
+                available.add(LocalDateTime.parse(slot.get("start").asText()).toLocalTime());
+            }
+        }
+
+        int slotsNeeded = duration / 30;
+        List<LocalTime> fitting = new ArrayList<>();
+        for (LocalTime start : available) {
+            LocalTime end = start.plusMinutes(duration);
+            if (start.isBefore(PRIME_FROM) || end.isAfter(PRIME_TO)) {
+                continue;
+            }
+            boolean fits = true;
+            for (int i = 1; i < slotsNeeded && fits; i++) {
+                fits = available.contains(start.plusMinutes(30L * i));
+            }
+            if (fits) {
+                fitting.add(start);
+            }
+        }
+        return fitting.isEmpty() ? null : fitting.get(random.nextInt(fitting.size()));
+    }
+
+    // ===================== HTTP =====================
+
+    private Response call(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+        while (true) {
+            long started = System.nanoTime();
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long elapsed = System.nanoTime() - started;
+
+            JsonNode body = parse(response.body());
+            Response result = new Response(response.statusCode(), body);
+            stats.record(endpoint, elapsed, response.statusCode(),
+                    response.statusCode() >= 400 ? message(result) : null);
+
+            // La sala de espera devuelve un turno: se espera a que lo admitan y se repite la misma petición
+            if (response.statusCode() == 503 && body.hasNonNull("ticket")) {
+                waitForAdmission(body.get("ticket").asText(), body.path("retryAfterSeconds").asLong(1));
+                continue;
+            }
+            return result;
+        }
+    }
+
+    private void waitForAdmission(String ticket, long retryAfterSeconds) throws IOException, InterruptedException {
+        long delaySeconds = retryAfterSeconds;
+        while (true) {
+            Thread.sleep(Math.min(delaySeconds, 5) * 1000);
+            long started = System.nanoTime();
+            HttpResponse<String> response = http.send(get("/waiting-room/" + ticket),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode body = parse(response.body());
+            stats.record(SimulationStats.WAITING_ROOM, System.nanoTime() - started, response.statusCode(),
+                    response.statusCode() >= 400 ? message(new Response(response.statusCode(), body)) : null);
+            if (response.statusCode() != 200 || body.path("admitted").asBoolean()) {
+                return;
+            }
+            delaySeconds = Math.max(1, body.path("retryAfterSeconds").asLong(1));
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    private HttpRequest post(String path, Object body) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (body == null) {
+            builder.POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body)));
+        }
+        return authorized(builder);
+    }
+
+    private HttpRequest authorized(HttpRequest.Builder builder) {
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private JsonNode parse(String body) {
+        try {
+            return body == null || body.isBlank() ? json.createObjectNode() : json.readTree(body);
+        } catch (IOException ex) {
+            return json.createObjectNode();
+        }
+    }
+
+    // Mensaje de BusinessException (GlobalExceptionHandler) o de error del login
+    private static String message(Response response) {
+        JsonNode body = response.body();
+        if (body.hasNonNull("message")) {
+            return body.get("message").asText();
+        }
+        return body.hasNonNull("error") ? body.get("error").asText() : null;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private void think() throws InterruptedException {
+        Thread.sleep(config.thinkMinMillis()
+                + random.nextInt(Math.max(1, config.thinkMaxMillis() - config.thinkMinMillis())));
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            Thread.sleep(remaining / 1_000_000, (int) (remaining % 1_000_000));
+        }
+    }
+
+    private record Response(int status, JsonNode body) {
+    }
+}
@@ -0,0 +1,58 @@
+// Contador de errores de negocio (BusinessException) por motivo y por clase que los lanza.
+// El motivo es el mensaje sin sus datos variables, para que la etiqueta tenga pocos valores distintos.
+
+package com.aytodeporte.config;
+
+import com.aytodeporte.utils.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+@Component
+@RequiredArgsConstructor
+public class BusinessErrorMetrics {
+
+    public static final String METRIC = "aytodeporte.business.errors";
+    public static final String REASON_TAG = "reason";
+
+    private static final int MAX_REASON_LENGTH = 80;
+    private static final Pattern NUMBERS = Pattern.compile("\\d+");
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(BusinessException ex) {
+        Counter.builder(METRIC)
+                .description("Errores de negocio devueltos al cliente")
+                .tag(REASON_TAG, reason(ex.getMessage()))
+                .tag("source", source(ex))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // Lo que sigue a ': ' es el dato concreto (motivo de un bloqueo, valor no válido...) y los números
+    // son IDs, horas o límites: se quitan ambos para quedarse con la plantilla del mensaje
+    private static String reason(String message) {
+        if (message == null || message.isBlank()) {
+            return "sin mensaje";
+        }
+        int colon = message.indexOf(": ");
+        String template = colon > 0 ? message.substring(0, colon) : message;
+        template = NUMBERS.matcher(template).replaceAll("#").trim();
+        return template.length() > MAX_REASON_LENGTH ? template.substring(0, MAX_REASON_LENGTH) : template;
+    }
+
+    // Clase donde se creó la excepción (ReservationService, WaitingRoom...), sin paquete ni lambdas
+    private static String source(BusinessException ex) {
+        StackTraceElement[] trace = ex.getStackTrace();
+        if (trace.length == 0) {
+            return "desconocido";
+        }
+        String className = trace[0].getClassName();
+        String simple = className.substring(className.lastIndexOf('.') + 1);
+        int inner = simple.indexOf('$');
+        return inner > 0 ? simple.substring(0, inner) : simple;
+    }
+}
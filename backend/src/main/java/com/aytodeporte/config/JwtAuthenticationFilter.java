@@ -1,26 +1,37 @@
 // Filtro que valida el JWT en cada petición y establece la autenticación en el contexto de seguridad.
-// Extrae el email del token, carga el usuario y autoriza la petición si el token es válido.
+// Con id y rol en el token basta verificar la firma; solo consulta la BD si se configura o con tokens antiguos.
 
 package com.aytodeporte.config;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
+
+    // true: el usuario se comprueba en la BD (con caché de vida corta) en lugar de fiarse del rol del token
+    private final boolean verifyUser;
+
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   PrincipalCache principalCache,
+                                   @Value("${aytodeporte.jwt.verify-user:false}") boolean verifyUser) {
+        this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
+        this.verifyUser = verifyUser;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -36,26 +47,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String token = authHeader.substring(7);
-        String email = jwtUtil.extractEmail(token);
-
-        // Autentica solo si el contexto aún no tiene usuario
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
-            // Valida token y establece la autenticación
-            if (jwtUtil.validateToken(token)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            }
+        // Autentica solo si el contexto aún no tiene usuario; un token no válido deja la petición sin autenticar
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            jwtUtil.parse(authHeader.substring(7))
+                    .flatMap(this::resolve)
+                    .ifPresent(principal -> SecurityContextHolder.getContext().setAuthentication(
+                            new UsernamePasswordAuthenticationToken(
+                                    principal,
+                                    null,
+                                    AuthorityUtils.createAuthorityList(principal.role())
+                            )));
         }
 
         filterChain.doFilter(request, response);
     }
+
+    // Los datos del token bastan salvo que se pida comprobar el usuario o el token no traiga id y rol
+    private Optional<JwtPrincipal> resolve(JwtPrincipal fromToken) {
+        if (!verifyUser && fromToken.hasIdentityClaims()) {
+            return Optional.of(fromToken);
+        }
+        return principalCache.get(fromToken.email());
+    }
 }
@@ -0,0 +1,30 @@
+// Usuario autenticado tal y como viaja en el JWT: id, email y rol.
+// Es el principal del contexto de seguridad; getName() devuelve el email, como hacía el UserDetails.
+
+package com.aytodeporte.config;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+public record JwtPrincipal(
+        Long userId,
+        String email,
+        String role
+) implements AuthenticatedPrincipal {
+
+    // Rol por defecto si el usuario no tiene ninguno
+    public static final String DEFAULT_ROLE = "USUARIO";
+
+    public static String roleOrDefault(String role) {
+        return role == null || role.isBlank() ? DEFAULT_ROLE : role;
+    }
+
+    // Los tokens emitidos antes de incluir id y rol solo traen el email
+    public boolean hasIdentityClaims() {
+        return userId != null && role != null;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -1,5 +1,5 @@
-// Utilidad para generar, validar y leer tokens JWT usados en la autenticación.
-// Firma tokens con HS256 y establece un tiempo de expiración de 24h.
+// Utilidad para generar y verificar los tokens JWT usados en la autenticación.
+// Firma tokens con HS256 que llevan email, id y rol del usuario y caducan a las 24h.
 
 package com.aytodeporte.config;
 
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtUtil {
@@ -19,34 +20,41 @@ public class JwtUtil {
     // Expiración del token: 24 horas
     private static final long EXPIRATION_TIME = 1000L * 60 * 60 * 24;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
-    }
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "rol";
+
+    // La clave y el parser son inmutables y seguros entre hilos: se construyen una sola vez
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder()
+            .setSigningKey(signingKey)
+            .build();
 
-    public String generateToken(String email) {
+    public String generateToken(Long userId, String email, String role) {
         return Jwts.builder()
                 .setSubject(email)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLE, JwtPrincipal.roleOrDefault(role))
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-
-    public boolean validateToken(String token) {
+    // Verifica firma y caducidad con un único parseo y devuelve los datos del usuario;
+    // vacío si el token no es válido
+    public Optional<JwtPrincipal> parse(String token) {
         try {
-            extractEmail(token);  // si falla, no es válido
-            return true;
-        } catch (JwtException e) {
-            return false;
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getSubject() == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new JwtPrincipal(
+                    claims.get(CLAIM_USER_ID, Long.class),
+                    claims.getSubject(),
+                    claims.get(CLAIM_ROLE, String.class)
+            ));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
     }
 }
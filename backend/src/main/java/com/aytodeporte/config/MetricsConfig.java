@@ -0,0 +1,21 @@
+// Configuración de métricas: límites de cardinalidad de las etiquetas que dependen de datos de negocio.
+// Las métricas HTTP, de repositorios y del pool Hikari las registra Spring Boot Actuator.
+
+package com.aytodeporte.config;
+
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    // Motivos distintos de error de negocio que se admiten; el resto no se registra
+    private static final int MAX_BUSINESS_ERROR_REASONS = 100;
+
+    @Bean
+    public MeterFilter businessErrorReasonLimit() {
+        return MeterFilter.maximumAllowableTags(BusinessErrorMetrics.METRIC, BusinessErrorMetrics.REASON_TAG,
+                MAX_BUSINESS_ERROR_REASONS, MeterFilter.deny());
+    }
+}
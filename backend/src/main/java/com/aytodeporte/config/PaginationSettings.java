@@ -0,0 +1,32 @@
+// Tamaños de página de los listados paginados por cursor: por defecto y máximo admitido.
+// Los controladores resuelven aquí el parámetro size antes de llamar al servicio.
+
+package com.aytodeporte.config;
+
+import com.aytodeporte.utils.BusinessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PaginationSettings {
+
+    private final int defaultSize;
+    private final int maxSize;
+
+    public PaginationSettings(@Value("${aytodeporte.pagination.default-size:50}") int defaultSize,
+                              @Value("${aytodeporte.pagination.max-size:200}") int maxSize) {
+        this.defaultSize = defaultSize;
+        this.maxSize = maxSize;
+    }
+
+    // Sin tamaño se usa el de por defecto; uno mayor que el máximo se recorta
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        if (requested < 1) {
+            throw new BusinessException("El tamaño de página debe ser mayor que 0");
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,76 @@
+// Caché acotada (LRU) y de vida corta de los usuarios autenticados, leídos de la BD por email.
+// La usa el filtro JWT cuando debe comprobar el usuario en la BD y para los tokens sin id ni rol.
+
+package com.aytodeporte.config;
+
+import com.aytodeporte.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final Map<String, Entry> entries;
+
+    // El LinkedHashMap en orden de acceso se modifica incluso al leer. ReentrantLock y no synchronized:
+    // con hilos virtuales un monitor disputado retiene el hilo portador mientras espera
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${aytodeporte.jwt.principal-cache.ttl:PT30S}") Duration ttl,
+                          @Value("${aytodeporte.jwt.principal-cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > PrincipalCache.this.maxEntries;
+            }
+        };
+    }
+
+    // Usuario vigente con ese email; vacío si ya no existe. Como mucho ttl de retraso
+    // en ver un borrado o un cambio de rol
+    public Optional<JwtPrincipal> get(String email) {
+        String key = email.trim().toLowerCase();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            Entry cached = entries.get(key);
+            if (cached != null && cached.expiresAtMillis > now) {
+                return Optional.of(cached.principal);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // La consulta se hace fuera del cerrojo: dos fallos simultáneos pueden leer el mismo usuario
+        Optional<JwtPrincipal> loaded = userRepository.findByEmail(key)
+                .map(u -> new JwtPrincipal(u.getId(), u.getEmail(), JwtPrincipal.roleOrDefault(u.getRol())));
+
+        lock.lock();
+        try {
+            if (loaded.isPresent()) {
+                entries.put(key, new Entry(loaded.get(), now + ttlMillis));
+            } else {
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return loaded;
+    }
+
+    private record Entry(JwtPrincipal principal, long expiresAtMillis) {}
+}
@@ -0,0 +1,123 @@
+// Filtro de limitación de peticiones por usuario o IP para login, registro y operaciones de reserva.
+// Al superar el límite responde 429 con Retry-After sin llegar a BCrypt ni a las consultas de reserva.
+
+package com.aytodeporte.config;
+
+import com.aytodeporte.utils.StripedRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN_PATH = "/api/users/login";
+    private static final String REGISTER_PATH = "/api/users/register";
+    private static final String RESERVATIONS_PATH = "/api/reservations";
+
+    private final boolean enabled;
+    private final StripedRateLimiter loginLimiter;
+    private final StripedRateLimiter registerLimiter;
+    private final StripedRateLimiter bookingLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(ObjectMapper objectMapper,
+                           @Value("${aytodeporte.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${aytodeporte.rate-limit.stripes:4096}") int stripes,
+                           @Value("${aytodeporte.rate-limit.login.per-second:0.2}") double loginRate,
+                           @Value("${aytodeporte.rate-limit.login.burst:10}") int loginBurst,
+                           @Value("${aytodeporte.rate-limit.register.per-second:0.05}") double registerRate,
+                           @Value("${aytodeporte.rate-limit.register.burst:3}") int registerBurst,
+                           @Value("${aytodeporte.rate-limit.booking.per-second:1}") double bookingRate,
+                           @Value("${aytodeporte.rate-limit.booking.burst:10}") int bookingBurst) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.loginLimiter = new StripedRateLimiter(loginRate, loginBurst, stripes);
+        this.registerLimiter = new StripedRateLimiter(registerRate, registerBurst, stripes);
+        this.bookingLimiter = new StripedRateLimiter(bookingRate, bookingBurst, stripes);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        StripedRateLimiter limiter = limiterFor(request);
+        long waitNanos = limiter.tryAcquire(clientKey(request));
+        if (waitNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        writeTooManyRequests(request, response, waitNanos);
+    }
+
+    // Login y registro se limitan por IP (aún no hay usuario); el resto de operaciones de reserva por usuario
+    private StripedRateLimiter limiterFor(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        String path = request.getServletPath();
+        if (LOGIN_PATH.equals(path)) {
+            return loginLimiter;
+        }
+        if (REGISTER_PATH.equals(path)) {
+            return registerLimiter;
+        }
+        if (path.startsWith(RESERVATIONS_PATH)) {
+            return bookingLimiter;
+        }
+        return null;
+    }
+
+    // Email autenticado si lo hay; si no, la IP de origen (un email nunca coincide con una IP).
+    // Se usan tal cual, sin concatenar, para no crear cadenas nuevas en cada petición
+    private static String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated()) {
+            return auth.getName();
+        }
+        return request.getRemoteAddr();
+    }
+
+    // Mismo formato de error que GlobalExceptionHandler
+    private void writeTooManyRequests(HttpServletRequest request,
+                                      HttpServletResponse response,
+                                      long waitNanos) throws IOException {
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Demasiadas peticiones: inténtalo de nuevo en " + retryAfter + " segundos");
+        body.put("path", request.getRequestURI());
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
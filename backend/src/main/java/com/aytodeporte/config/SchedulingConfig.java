@@ -0,0 +1,12 @@
+// Configuración que habilita las tareas programadas (@Scheduled) de la aplicación.
+// La usan los procesos periódicos en memoria, como el avance de la rueda de retenciones.
+
+package com.aytodeporte.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
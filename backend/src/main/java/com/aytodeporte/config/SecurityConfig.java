@@ -23,6 +23,8 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final WaitingRoomFilter waitingRoomFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -61,6 +63,12 @@ public class SecurityConfig {
         // Inserta el filtro JWT antes del filtro estándar de autenticación por usuario/contraseña
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
+        // Límite de peticiones por usuario o IP: corta a los clientes abusivos antes de que cojan turno
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+
+        // La sala de espera necesita al usuario ya autenticado para darle un único turno
+        http.addFilterAfter(waitingRoomFilter, RateLimitFilter.class);
+
         return http.build();
     }
 
@@ -0,0 +1,36 @@
+// Informa al arrancar de si las peticiones, tareas @Async y programadas corren en hilos virtuales.
+// Avisa si se pidió el modo virtual en una JVM anterior a Java 21, donde Spring Boot lo ignora.
+
+package com.aytodeporte.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class ThreadingModeLogger {
+
+    private static final int VIRTUAL_THREADS_JAVA_VERSION = 21;
+
+    private final boolean virtualRequested;
+
+    public ThreadingModeLogger(@Value("${spring.threads.virtual.enabled:false}") boolean virtualRequested) {
+        this.virtualRequested = virtualRequested;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        if (!virtualRequested) {
+            log.info("Modo de hilos: plataforma (Java {})", javaVersion);
+        } else if (javaVersion < VIRTUAL_THREADS_JAVA_VERSION) {
+            log.warn("spring.threads.virtual.enabled=true ignorado: requiere Java {} y la JVM es Java {}",
+                    VIRTUAL_THREADS_JAVA_VERSION, javaVersion);
+        } else {
+            log.info("Modo de hilos: virtuales para Tomcat, @Async y tareas programadas (Java {})", javaVersion);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+// Filtro de control de admisión delante de las rutas de reserva y disponibilidad más demandadas.
+// Si la sala de espera no deja pasar al usuario responde 503 con Retry-After y su turno en la cola.
+
+package com.aytodeporte.config;
+
+import com.aytodeporte.dto.WaitingRoomStatus;
+import com.aytodeporte.services.WaitingRoom;
+import com.aytodeporte.utils.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Component
+@RequiredArgsConstructor
+public class WaitingRoomFilter extends OncePerRequestFilter {
+
+    // Crear, retener y confirmar reservas
+    private static final Pattern GUARDED_POST =
+            Pattern.compile("^/api/reservations(/holds(/[^/]+/confirm)?)?/?$");
+
+    // Disponibilidad diaria y parrilla
+    private static final Pattern GUARDED_GET =
+            Pattern.compile("^/api/reservations/availability(/grid)?/?$");
+
+    private final WaitingRoom waitingRoom;
+    private final ObjectMapper objectMapper;
+    private final BusinessErrorMetrics businessErrorMetrics;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!waitingRoom.isEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (request.getMethod()) {
+            case "POST" -> !GUARDED_POST.matcher(path).matches();
+            case "GET" -> !GUARDED_GET.matcher(path).matches();
+            default -> true;
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // Sin autenticar se deja seguir: la cadena de seguridad la rechazará después.
+        // Los administradores no hacen cola.
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || isAdmin(auth)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Optional<WaitingRoomStatus> queued;
+        try {
+            queued = waitingRoom.admit(auth.getName());
+        } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
+            writeUnavailable(request, response, ex.getMessage(), null);
+            return;
+        }
+
+        if (queued.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        writeUnavailable(request, response,
+                "Hay mucha demanda en este momento: estás en la sala de espera", queued.get());
+    }
+
+    private static boolean isAdmin(Authentication auth) {
+        return auth.getAuthorities().stream().anyMatch(a -> "ADMIN".equals(a.getAuthority()));
+    }
+
+    // Mismo formato de error que GlobalExceptionHandler más los datos del turno
+    private void writeUnavailable(HttpServletRequest request,
+                                  HttpServletResponse response,
+                                  String message,
+                                  WaitingRoomStatus status) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        body.put("error", "Service Unavailable");
+        body.put("message", message);
+        body.put("path", request.getRequestURI());
+
+        long retryAfter = 30;
+        if (status != null) {
+            retryAfter = status.retryAfterSeconds();
+            body.put("ticket", status.ticket());
+            body.put("position", status.position());
+            body.put("retryAfterSeconds", retryAfter);
+        }
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
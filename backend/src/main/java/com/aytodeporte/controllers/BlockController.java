@@ -1,15 +1,26 @@
 // Controlador REST para gestionar bloqueos: creación, listado y eliminación.
-// Expone endpoints para bloqueos globales y por instalación.
+// Expone endpoints para bloqueos globales, por instalación y reglas recurrentes.
 
 package com.aytodeporte.controllers;
 
+import com.aytodeporte.config.PaginationSettings;
+import com.aytodeporte.dto.BlockImpactItem;
+import com.aytodeporte.dto.BlockImpactResponse;
 import com.aytodeporte.dto.BlockRequest;
 import com.aytodeporte.dto.BlockResponse;
+import com.aytodeporte.dto.BlockRuleOccurrence;
+import com.aytodeporte.dto.BlockRuleRequest;
+import com.aytodeporte.dto.BlockRuleResponse;
+import com.aytodeporte.dto.PageResponse;
+import com.aytodeporte.services.BlockRuleService;
 import com.aytodeporte.services.BlockService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -18,6 +29,8 @@ import java.util.List;
 public class BlockController {
 
     private final BlockService blockService;
+    private final BlockRuleService blockRuleService;
+    private final PaginationSettings paginationSettings;
 
     // Crear un nuevo bloqueo (global o por instalación)
     @PostMapping
@@ -26,12 +39,37 @@ public class BlockController {
         return blockService.createBlock(request);
     }
 
+    // Analizar qué reservas confirmadas quedarían dentro de un bloqueo (solo ADMIN).
+    // Con commit=true crea el bloqueo y cancela las reservas afectadas que aún se pueden cancelar.
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/impact")
+    public BlockImpactResponse impact(@RequestBody BlockRequest request,
+                                      @RequestParam(defaultValue = "false") boolean commit) {
+        return commit
+                ? blockService.createBlockCancellingConflicts(request)
+                : blockService.analyzeBlockImpact(request);
+    }
+
+    // Listar reservas confirmadas pendientes que ya están dentro de algún bloqueo (solo ADMIN)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/conflicts")
+    public List<BlockImpactItem> getConflicts() {
+        return blockService.findBlockConflicts();
+    }
+
     // Obtener todos los bloqueos existentes
     @GetMapping
     public List<BlockResponse> getAll() {
         return blockService.getAllBlocks();
     }
 
+    // Bloqueos paginados por cursor (nextCursor de la página anterior)
+    @GetMapping("/page")
+    public PageResponse<BlockResponse> getPage(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size) {
+        return blockService.getBlockPage(cursor, paginationSettings.pageSize(size));
+    }
+
     // Listar únicamente bloqueos globales
     @GetMapping("/global")
     public List<BlockResponse> getGlobalBlocks() {
@@ -50,4 +88,36 @@ public class BlockController {
     public void delete(@PathVariable Long id) {
         blockService.deleteBlock(id);
     }
+
+    // Crear una regla de bloqueo recurrente (semanal, mensual o lista de fechas)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/rules")
+    @ResponseStatus(HttpStatus.CREATED)
+    public BlockRuleResponse createRule(@RequestBody BlockRuleRequest request) {
+        return blockRuleService.createRule(request);
+    }
+
+    // Listar las reglas de bloqueo recurrentes
+    @GetMapping("/rules")
+    public List<BlockRuleResponse> getRules() {
+        return blockRuleService.getAllRules();
+    }
+
+    // Ver las ocurrencias de las reglas en un rango de días
+    @GetMapping("/rules/occurrences")
+    public List<BlockRuleOccurrence> getRuleOccurrences(
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return blockRuleService.getOccurrences(from, to);
+    }
+
+    // Eliminar una regla de bloqueo recurrente
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @DeleteMapping("/rules/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteRule(@PathVariable Long id) {
+        blockRuleService.deleteRule(id);
+    }
 }
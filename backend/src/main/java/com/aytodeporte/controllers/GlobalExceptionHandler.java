@@ -3,8 +3,10 @@
 
 package com.aytodeporte.controllers;
 
+import com.aytodeporte.config.BusinessErrorMetrics;
 import com.aytodeporte.utils.BusinessException;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -15,14 +17,19 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final BusinessErrorMetrics businessErrorMetrics;
+
     // Captura BusinessException y devuelve un JSON con información del error
     @ExceptionHandler(BusinessException.class)
     public ResponseEntity<Map<String, Object>> handleBusinessException(
             BusinessException ex,
             HttpServletRequest request
     ) {
+        businessErrorMetrics.record(ex);
+
         Map<String, Object> body = new LinkedHashMap<>();
         body.put("timestamp", LocalDateTime.now().toString());
         body.put("status", HttpStatus.BAD_REQUEST.value());
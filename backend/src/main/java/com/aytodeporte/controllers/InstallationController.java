@@ -3,6 +3,7 @@
 
 package com.aytodeporte.controllers;
 
+import com.aytodeporte.config.BusinessErrorMetrics;
 import com.aytodeporte.dto.InstallationRequest;
 import com.aytodeporte.dto.InstallationResponse;
 import com.aytodeporte.services.InstallationService;
@@ -22,6 +23,7 @@ import java.util.List;
 public class InstallationController {
 
     private final InstallationService installationService;
+    private final BusinessErrorMetrics businessErrorMetrics;
 
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
@@ -36,6 +38,7 @@ public class InstallationController {
             InstallationResponse response = installationService.createInstallation(request);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
         }
     }
@@ -63,6 +66,7 @@ public class InstallationController {
             InstallationResponse response = installationService.updateInstallation(id, request);
             return ResponseEntity.ok(response);
         } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
         }
     }
@@ -75,6 +79,7 @@ public class InstallationController {
             installationService.deleteInstallation(id);
             return ResponseEntity.noContent().build();
         } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
         }
     }
@@ -0,0 +1,42 @@
+// Controlador REST de informes de ocupación e ingresos por instalación para el panel de administración.
+// Los informes se calculan desde los acumulados por día y franja horaria, no desde las reservas.
+
+package com.aytodeporte.controllers;
+
+import com.aytodeporte.dto.OccupancyReportResponse;
+import com.aytodeporte.services.OccupancyReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/reports")
+@RequiredArgsConstructor
+public class ReportController {
+
+    private final OccupancyReportService occupancyReportService;
+
+    // Ocupación e ingresos de un mes, con desglose por instalación, día y franja horaria (solo ADMIN)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/occupancy/monthly")
+    public OccupancyReportResponse getMonthly(@RequestParam int year,
+                                              @RequestParam int month,
+                                              @RequestParam(required = false) Long installationId) {
+        return occupancyReportService.getMonthlyReport(year, month, installationId);
+    }
+
+    // Ocupación e ingresos de un año, con desglose por instalación, mes y franja horaria (solo ADMIN)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/occupancy/yearly")
+    public OccupancyReportResponse getYearly(@RequestParam int year,
+                                             @RequestParam(required = false) Long installationId) {
+        return occupancyReportService.getYearlyReport(year, installationId);
+    }
+
+    // Reconstruir los acumulados desde las reservas confirmadas; devuelve las filas generadas (solo ADMIN)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/occupancy/rebuild")
+    public int rebuild() {
+        return occupancyReportService.rebuildRollups();
+    }
+}
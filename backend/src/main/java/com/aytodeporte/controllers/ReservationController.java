@@ -3,13 +3,34 @@
 
 package com.aytodeporte.controllers;
 
+import com.aytodeporte.config.PaginationSettings;
+import com.aytodeporte.dto.AvailabilityCacheStats;
+import com.aytodeporte.dto.AvailabilityGridResponse;
 import com.aytodeporte.dto.DailyAvailabilityResponse;
+import com.aytodeporte.dto.PageResponse;
 import com.aytodeporte.dto.ReservationResponse;
+import com.aytodeporte.dto.ReservationSeriesRequest;
+import com.aytodeporte.dto.ReservationSeriesResponse;
+import com.aytodeporte.dto.SlotHoldResponse;
+import com.aytodeporte.dto.WaitlistResponse;
+import com.aytodeporte.services.ReservationExportService;
+import com.aytodeporte.services.ReservationSeriesService;
 import com.aytodeporte.services.ReservationService;
+import com.aytodeporte.services.WaitlistService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,15 +41,80 @@ import java.util.List;
 public class ReservationController {
 
     private final ReservationService reservationService;
+    private final ReservationSeriesService reservationSeriesService;
+    private final WaitlistService waitlistService;
+    private final ReservationExportService reservationExportService;
+    private final PaginationSettings paginationSettings;
 
-    // Crear una reserva indicando usuario, instalación, fecha/hora y duración
+    // El navegador guarda la respuesta pero la revalida siempre con If-None-Match
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    // Crear una reserva indicando usuario, instalación, fecha/hora y duración.
+    // Con un holdToken vigente se omiten las validaciones ya hechas al retener el tramo.
     @PostMapping
     public ReservationResponse createReservation(@RequestParam Long userId,
                                                  @RequestParam Long installationId,
                                                  @RequestParam
                                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
-                                                 @RequestParam int duration) {
-        return reservationService.createReservation(userId, installationId, start, duration);
+                                                 @RequestParam int duration,
+                                                 @RequestParam(required = false) String holdToken) {
+        return reservationService.createReservation(userId, installationId, start, duration, holdToken);
+    }
+
+    // Crear una serie de reservas periódicas (solo ADMIN); devuelve el resultado de cada ocurrencia
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/series")
+    public ReservationSeriesResponse createSeries(@RequestBody ReservationSeriesRequest request) {
+        return reservationSeriesService.createSeries(request);
+    }
+
+    // Retener temporalmente un tramo mientras el usuario confirma
+    @PostMapping("/holds")
+    public SlotHoldResponse holdSlot(@RequestParam Long userId,
+                                     @RequestParam Long installationId,
+                                     @RequestParam
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                     @RequestParam int duration) {
+        return reservationService.holdSlot(userId, installationId, start, duration);
+    }
+
+    // Confirmar una retención convirtiéndola en reserva
+    @PostMapping("/holds/{token}/confirm")
+    public ReservationResponse confirmHold(@PathVariable String token,
+                                           @RequestParam Long userId) {
+        return reservationService.confirmHold(token, userId);
+    }
+
+    // Liberar una retención antes de que caduque
+    @DeleteMapping("/holds/{token}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void releaseHold(@PathVariable String token,
+                            @RequestParam Long userId) {
+        reservationService.releaseHold(token, userId);
+    }
+
+    // Apuntarse a la lista de espera de un tramo ocupado; si se cancela la reserva se asigna sola
+    @PostMapping("/waitlist")
+    public WaitlistResponse joinWaitlist(@RequestParam Long userId,
+                                         @RequestParam Long installationId,
+                                         @RequestParam
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+                                         @RequestParam int duration) {
+        return waitlistService.join(userId, installationId, start, duration);
+    }
+
+    // Listar las esperas de un usuario que aún no han empezado
+    @GetMapping("/waitlist/user/{userId}")
+    public List<WaitlistResponse> getWaitlistByUser(@PathVariable Long userId) {
+        return waitlistService.getUpcomingByUser(userId);
+    }
+
+    // Salir de la lista de espera
+    @DeleteMapping("/waitlist/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void leaveWaitlist(@PathVariable Long id,
+                              @RequestParam Long userId) {
+        waitlistService.leave(id, userId);
     }
 
     // Cancelar una reserva (el usuario o un administrador)
@@ -51,13 +137,90 @@ public class ReservationController {
         return reservationService.getReservationsByInstallation(installationId);
     }
 
-    // Obtener disponibilidad horaria de una instalación para un día concreto
+    // Reservas de una instalación paginadas por cursor (nextCursor de la página anterior)
+    @GetMapping("/installation/{installationId}/page")
+    public PageResponse<ReservationResponse> getPageByInstallation(@PathVariable Long installationId,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size) {
+        return reservationService.getReservationPageByInstallation(installationId, cursor,
+                paginationSettings.pageSize(size));
+    }
+
+    // Exportación contable de las reservas que empiezan entre from y to (solo ADMIN), en csv o ndjson.
+    // Se escribe directamente en la respuesta mientras se recorre el cursor, sin acumular filas.
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/export")
+    public void exportReservations(@RequestParam
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(required = false) Long installationId,
+                                   @RequestParam(defaultValue = "csv") String format,
+                                   HttpServletResponse response) throws IOException {
+
+        ReservationExportService.Format exportFormat =
+                reservationExportService.validate(format, from, to, installationId);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservas_"
+                + from + "_" + to + "." + exportFormat.getExtension() + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        reservationExportService.export(exportFormat, from, to, installationId, response.getOutputStream());
+    }
+
+    // Obtener disponibilidad horaria de una instalación para un día concreto.
+    // Admite If-None-Match: si el día no ha cambiado responde 304 sin consultar la BD.
     @GetMapping("/availability")
-    public DailyAvailabilityResponse getDailyAvailability(
+    public ResponseEntity<DailyAvailabilityResponse> getDailyAvailability(
+            @RequestParam Long installationId,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            WebRequest request) {
+
+        // La versión se lee antes que los datos: como mucho el cliente recibe un ETag más antiguo
+        String etag = reservationService.getAvailabilityETag(installationId, date);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(REVALIDATE)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .body(reservationService.getDailyAvailability(installationId, date));
+    }
+
+    // Disponibilidad de todas las instalaciones activas de un tipo para un rango de días
+    @GetMapping("/availability/grid")
+    public AvailabilityGridResponse getAvailabilityGrid(
+            @RequestParam String type,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return reservationService.getAvailabilityGrid(type, from, to);
+    }
+
+    // Flujo SSE con los cambios de slots de una instalación en un rango de días
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSlotChanges(
             @RequestParam Long installationId,
             @RequestParam
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        return reservationService.subscribeToSlotChanges(installationId, from, to);
+    }
 
-        return reservationService.getDailyAvailability(installationId, date);
+    // Estadísticas de aciertos/fallos de la caché de disponibilidad (solo ADMIN)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/availability/cache-stats")
+    public AvailabilityCacheStats getAvailabilityCacheStats() {
+        return reservationService.getAvailabilityCacheStats();
     }
 }
@@ -3,10 +3,14 @@
 
 package com.aytodeporte.controllers;
 
+import com.aytodeporte.config.BusinessErrorMetrics;
 import com.aytodeporte.config.JwtUtil;
+import com.aytodeporte.config.PaginationSettings;
 import com.aytodeporte.dto.LoginRequest;
 import com.aytodeporte.dto.LoginResponse;
+import com.aytodeporte.dto.PageResponse;
 import com.aytodeporte.dto.RegisterRequest;
+import com.aytodeporte.dto.UserSummary;
 import com.aytodeporte.models.User;
 import com.aytodeporte.services.UserService;
 import com.aytodeporte.utils.BusinessException;
@@ -27,6 +31,8 @@ public class UserController {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final BusinessErrorMetrics businessErrorMetrics;
+    private final PaginationSettings paginationSettings;
 
     @GetMapping("/ping")
     public ResponseEntity<String> ping() {
@@ -44,7 +50,7 @@ public class UserController {
                     request.getApellido()
             );
 
-            String token = jwtUtil.generateToken(user.getEmail());
+            String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRol());
 
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(new LoginResponse(
@@ -56,6 +62,7 @@ public class UserController {
                             user.getNombre()
                     ));
         } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
         }
@@ -70,7 +77,7 @@ public class UserController {
                     request.getPassword()
             );
 
-            String token = jwtUtil.generateToken(user.getEmail());
+            String token = jwtUtil.generateToken(user.getId(), user.getEmail(), user.getRol());
 
             return ResponseEntity.ok(
                     new LoginResponse(
@@ -83,6 +90,7 @@ public class UserController {
                     )
             );
         } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("error", ex.getMessage()));
         }
@@ -109,6 +117,14 @@ public class UserController {
         return ResponseEntity.ok(result);
     }
 
+    // Listado de usuarios paginado por cursor (solo ADMIN)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/page")
+    public PageResponse<UserSummary> getUserPage(@RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return userService.getUserPage(cursor, paginationSettings.pageSize(size));
+    }
+
     // Eliminación de usuario (solo ADMIN)
     @PreAuthorize("hasAuthority('ADMIN')")
     @DeleteMapping("/{id}")
@@ -117,6 +133,7 @@ public class UserController {
             userService.deleteUser(id);
             return ResponseEntity.noContent().build();
         } catch (BusinessException ex) {
+            businessErrorMetrics.record(ex);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(Map.of("error", ex.getMessage()));
         } catch (Exception ex) {
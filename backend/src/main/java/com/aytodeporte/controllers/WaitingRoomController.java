@@ -0,0 +1,30 @@
+// Controlador REST de la sala de espera: consulta del turno asignado cuando hay mucha demanda.
+// Es la ruta que sondea el front mientras espera; solo lee memoria y no toca la BD.
+
+package com.aytodeporte.controllers;
+
+import com.aytodeporte.dto.WaitingRoomStatus;
+import com.aytodeporte.services.WaitingRoom;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waiting-room")
+@RequiredArgsConstructor
+public class WaitingRoomController {
+
+    private final WaitingRoom waitingRoom;
+
+    // Posición en la cola del turno del usuario autenticado; Retry-After indica cuándo volver a consultar
+    @GetMapping("/{ticket}")
+    public ResponseEntity<WaitingRoomStatus> getStatus(@PathVariable String ticket,
+                                                       Authentication authentication) {
+        WaitingRoomStatus status = waitingRoom.poll(ticket, authentication.getName());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(status.retryAfterSeconds()))
+                .body(status);
+    }
+}
@@ -0,0 +1,19 @@
+// Proyección de una reserva con los datos necesarios para informar al administrador de un conflicto.
+// Se carga con una única consulta con JOIN, sin materializar entidades.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record AffectedReservation(
+        Long id,
+        Long userId,
+        String userEmail,
+        Long installationId,
+        String installationName,
+        LocalDateTime start,
+        LocalDateTime end,
+        String code,
+        BigDecimal amount
+) {}
@@ -0,0 +1,14 @@
+// DTO con las estadísticas de la caché de disponibilidad diaria.
+// Se expone a administradores para vigilar la tasa de aciertos en horas punta.
+
+package com.aytodeporte.dto;
+
+public record AvailabilityCacheStats(
+        int size,
+        int maxEntries,
+        long hits,
+        long misses,
+        long evictions,
+        long invalidations,
+        double hitRatio
+) {}
@@ -0,0 +1,13 @@
+// DTO con la disponibilidad de varias instalaciones de un mismo tipo para un rango de días.
+// Cada elemento de days es la parrilla diaria de una instalación en una fecha.
+
+package com.aytodeporte.dto;
+
+import java.util.List;
+
+public record AvailabilityGridResponse(
+        String type,
+        String from,
+        String to,
+        List<DailyAvailabilityResponse> days
+) {}
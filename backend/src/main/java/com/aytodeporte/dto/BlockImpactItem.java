@@ -0,0 +1,21 @@
+// DTO de salida con una reserva confirmada que queda dentro de un bloqueo.
+// cancellable indica si aún se puede cancelar (regla de las 4 horas) y cancelled si se ha cancelado.
+
+package com.aytodeporte.dto;
+
+import java.time.LocalDateTime;
+
+public record BlockImpactItem(
+        Long reservationId,
+        Long userId,
+        String userEmail,
+        Long installationId,
+        String installationName,
+        LocalDateTime start,
+        LocalDateTime end,
+        String code,
+        Long blockId,
+        String blockReason,
+        boolean cancellable,
+        boolean cancelled
+) {}
@@ -0,0 +1,14 @@
+// DTO de salida del análisis de impacto de un bloqueo sobre las reservas confirmadas.
+// En simulación block es nulo y no se cancela nada; al confirmar incluye el bloqueo creado.
+
+package com.aytodeporte.dto;
+
+import java.util.List;
+
+public record BlockImpactResponse(
+        BlockResponse block,
+        boolean committed,
+        int affected,
+        int cancelled,
+        List<BlockImpactItem> reservations
+) {}
@@ -0,0 +1,42 @@
+// Proyección ligera de un bloqueo con su instalación (nula si es global) y su intervalo horario.
+// Las ocurrencias de reglas recurrentes no tienen id propio y llevan el de su regla en ruleId.
+
+package com.aytodeporte.dto;
+
+import com.aytodeporte.models.Block;
+
+import java.time.LocalDateTime;
+
+public record BlockInterval(
+        Long id,
+        Long installationId,
+        String reason,
+        LocalDateTime start,
+        LocalDateTime end,
+        Long ruleId
+) {
+
+    // Bloqueo guardado como fila en la tabla bloqueos
+    public BlockInterval(Long id, Long installationId, String reason, LocalDateTime start, LocalDateTime end) {
+        this(id, installationId, reason, start, end, null);
+    }
+
+    // Conversión directa desde la entidad Block
+    public static BlockInterval of(Block b) {
+        return new BlockInterval(
+                b.getId(),
+                b.getInstallation() != null ? b.getInstallation().getId() : null,
+                b.getReason(),
+                b.getStart(),
+                b.getEnd()
+        );
+    }
+
+    public boolean isGlobal() {
+        return installationId == null;
+    }
+
+    public boolean isRule() {
+        return ruleId != null;
+    }
+}
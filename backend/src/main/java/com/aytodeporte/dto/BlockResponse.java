@@ -7,11 +7,15 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @AllArgsConstructor
 public class BlockResponse {
 
+    private static final String GLOBAL_INSTALLATION_NAME = "TODAS LAS INSTALACIONES";
+
     private Long id;
     private Long installationId;
     private String installationName;
@@ -24,4 +28,12 @@ public class BlockResponse {
     private String createdByEmail;
 
     private String createdAt;
+
+    // Constructor para las consultas JPQL con "SELECT new" (LEFT JOIN a la instalación: null en los globales)
+    public BlockResponse(Long id, Long installationId, String installationName, String reason,
+                         LocalDateTime start, LocalDateTime end,
+                         Long createdByUserId, String createdByEmail, LocalDateTime createdAt) {
+        this(id, installationId, installationId != null ? installationName : GLOBAL_INSTALLATION_NAME, reason,
+                start.toString(), end.toString(), createdByUserId, createdByEmail, createdAt.toString());
+    }
 }
@@ -0,0 +1,15 @@
+// DTO de salida con una ocurrencia concreta de una regla de bloqueo en un día.
+// Permite al administrador ver qué tramos bloquea una regla en un rango de fechas.
+
+package com.aytodeporte.dto;
+
+import java.time.LocalDateTime;
+
+public record BlockRuleOccurrence(
+        Long ruleId,
+        Long installationId,
+        String installationType,
+        String reason,
+        LocalDateTime start,
+        LocalDateTime end
+) {}
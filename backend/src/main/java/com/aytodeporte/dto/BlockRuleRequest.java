@@ -0,0 +1,33 @@
+// DTO para crear una regla de bloqueo recurrente (semanal, mensual o lista de fechas).
+// Horas y fechas se envían como strings ISO y se validan en el servicio.
+
+package com.aytodeporte.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BlockRuleRequest {
+
+    private String kind;              // semanal | mensual | fechas
+
+    // Ámbito: instalación concreta, tipo de instalación o ninguno (global)
+    private Long installationId;
+    private String installationType;
+
+    private String dayOfWeek;         // MONDAY..SUNDAY (semanal)
+    private Integer dayOfMonth;       // 1..31 (mensual)
+    private List<String> dates;       // ISO-8601 (fechas)
+
+    private String startTime;         // HH:mm
+    private String endTime;           // HH:mm
+
+    private String validFrom;         // ISO-8601 (opcional)
+    private String validUntil;        // ISO-8601 (opcional)
+
+    private String reason;
+    private Long createdByUserId;
+}
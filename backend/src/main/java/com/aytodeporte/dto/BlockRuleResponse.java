@@ -0,0 +1,24 @@
+// DTO de salida de una regla de bloqueo recurrente con su ámbito y su patrón de repetición.
+// Se usa en las respuestas del controlador de bloqueos.
+
+package com.aytodeporte.dto;
+
+import java.util.List;
+
+public record BlockRuleResponse(
+        Long id,
+        String kind,
+        Long installationId,
+        String installationName,
+        String installationType,
+        String dayOfWeek,
+        Integer dayOfMonth,
+        List<String> dates,
+        String startTime,
+        String endTime,
+        String validFrom,
+        String validUntil,
+        String reason,
+        Long createdByUserId,
+        String createdAt
+) {}
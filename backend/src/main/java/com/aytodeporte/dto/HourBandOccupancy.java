@@ -0,0 +1,14 @@
+// Totales de ocupación e ingresos de la franja [hour:00, hour+1:00) sumando todos los días del informe.
+// Permite ver las horas punta sin recorrer las reservas.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+
+public record HourBandOccupancy(
+        int hour,
+        long reservations,
+        long bookedMinutes,
+        BigDecimal revenue,
+        double occupancyRate
+) {}
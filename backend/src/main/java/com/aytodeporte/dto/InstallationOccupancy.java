@@ -0,0 +1,15 @@
+// Totales de ocupación e ingresos de una instalación dentro de un informe.
+// occupancyRate es la fracción de minutos reservados sobre los minutos de apertura del periodo.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+
+public record InstallationOccupancy(
+        Long installationId,
+        String installationName,
+        long reservations,
+        long bookedMinutes,
+        BigDecimal revenue,
+        double occupancyRate
+) {}
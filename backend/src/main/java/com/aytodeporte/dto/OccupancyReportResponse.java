@@ -0,0 +1,21 @@
+// DTO de salida de un informe de ocupación e ingresos de un mes o un año, calculado desde los acumulados.
+// Incluye los totales del periodo y su desglose por instalación, por día o mes y por franja horaria.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record OccupancyReportResponse(
+        String period,
+        String from,
+        String to,
+        Long installationId,
+        long reservations,
+        long bookedMinutes,
+        BigDecimal revenue,
+        double occupancyRate,
+        List<InstallationOccupancy> installations,
+        List<PeriodOccupancy> periods,
+        List<HourBandOccupancy> hourBands
+) {}
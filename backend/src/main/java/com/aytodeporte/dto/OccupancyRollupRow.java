@@ -0,0 +1,17 @@
+// Fila de ocupacion_resumen o agregado de varias: los campos de agrupación que no aplican van a null.
+// También representa el cambio que una reserva confirmada o cancelada aplica a una franja.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record OccupancyRollupRow(
+        Long installationId,
+        String installationName,
+        LocalDate date,
+        Integer hour,
+        long reservations,
+        long bookedMinutes,
+        BigDecimal revenue
+) {}
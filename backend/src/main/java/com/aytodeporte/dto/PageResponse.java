@@ -0,0 +1,22 @@
+// DTO de salida para listados paginados por cursor: la página y el cursor de la siguiente.
+// nextCursor es null cuando no quedan más filas.
+
+package com.aytodeporte.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record PageResponse<T>(
+        List<T> items,
+        String nextCursor
+) {
+
+    // Recibe hasta size + 1 filas: la sobrante solo indica que existe otra página
+    public static <T> PageResponse<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, size));
+        return new PageResponse<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+}
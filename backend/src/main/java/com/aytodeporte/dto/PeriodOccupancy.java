@@ -0,0 +1,14 @@
+// Totales de ocupación e ingresos de un día (yyyy-MM-dd) o de un mes (yyyy-MM) dentro de un informe.
+// Suma todas las instalaciones del filtro.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+
+public record PeriodOccupancy(
+        String period,
+        long reservations,
+        long bookedMinutes,
+        BigDecimal revenue,
+        double occupancyRate
+) {}
@@ -0,0 +1,21 @@
+// Fila de la exportación contable de reservas, leída directamente del cursor JDBC.
+// Solo vive lo que tarda en escribirse en la respuesta: la exportación nunca acumula filas.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ReservationExportRow(
+        Long id,
+        String code,
+        Long userId,
+        String userEmail,
+        Long installationId,
+        String installationName,
+        LocalDateTime start,
+        LocalDateTime end,
+        String status,
+        BigDecimal amount,
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,14 @@
+// Proyección ligera de una reserva con solo sus identificadores y su intervalo horario.
+// Se usa para cargar índices en memoria sin materializar entidades ni asociaciones LAZY.
+
+package com.aytodeporte.dto;
+
+import java.time.LocalDateTime;
+
+public record ReservationInterval(
+        Long id,
+        Long installationId,
+        Long userId,
+        LocalDateTime start,
+        LocalDateTime end
+) {}
@@ -4,11 +4,13 @@
 package com.aytodeporte.dto;
 
 import com.aytodeporte.models.Reservation;
+import com.aytodeporte.models.ReservationStatus;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Data
@@ -28,6 +30,16 @@ public class ReservationResponse {
     private String code;
     private BigDecimal amount;
 
+    // Constructor para las consultas JPQL con "SELECT new": la duración y el estado se derivan aquí
+    public ReservationResponse(Long id, Long userId, String userEmail, Long installationId, String installationName,
+                               LocalDateTime start, LocalDateTime end, ReservationStatus status,
+                               String code, BigDecimal amount) {
+        this(id, userId, userEmail, installationId, installationName, start, end,
+                (int) Duration.between(start, end).toMinutes(),
+                status != null ? status.name() : null,
+                code, amount);
+    }
+
     // Conversión directa desde la entidad Reservation
     public static ReservationResponse fromEntity(Reservation r) {
         return new ReservationResponse(
@@ -0,0 +1,27 @@
+// DTO de entrada para crear una serie de reservas periódicas (p. ej. todos los martes a las 19:00).
+// Las fechas se envían como strings ISO y la regla de repetición se expande en el servicio.
+
+package com.aytodeporte.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ReservationSeriesRequest {
+
+    private Long userId;
+    private Long installationId;
+
+    private String start;   // ISO-8601, primera ocurrencia
+    private Integer durationMinutes;
+    private String until;   // ISO-8601 (fecha), último día incluido
+
+    // Cada cuántas semanas se repite (1 por defecto)
+    private Integer intervalWeeks;
+
+    // Días de la semana (MONDAY, TUESDAY...); si no se envía, el del inicio
+    private List<String> daysOfWeek;
+}
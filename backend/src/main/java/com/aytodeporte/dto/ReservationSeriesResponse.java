@@ -0,0 +1,18 @@
+// DTO de salida de una serie de reservas: totales y resultado de cada ocurrencia.
+// Las ocurrencias rechazadas no impiden crear el resto de la serie; skippedDates resume sus días.
+
+package com.aytodeporte.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public record ReservationSeriesResponse(
+        Long userId,
+        Long installationId,
+        int requested,
+        int created,
+        List<LocalDate> skippedDates,
+        BigDecimal totalAmount,
+        List<SeriesOccurrenceResult> occurrences
+) {}
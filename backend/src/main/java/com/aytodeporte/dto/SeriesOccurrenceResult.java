@@ -0,0 +1,15 @@
+// DTO de salida con el resultado de una ocurrencia de una serie de reservas.
+// Si no se ha creado, reason indica el motivo (bloqueo, solape o retención).
+
+package com.aytodeporte.dto;
+
+import java.time.LocalDateTime;
+
+public record SeriesOccurrenceResult(
+        LocalDateTime start,
+        LocalDateTime end,
+        boolean created,
+        Long reservationId,
+        String code,
+        String reason
+) {}
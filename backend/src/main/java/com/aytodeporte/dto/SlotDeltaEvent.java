@@ -0,0 +1,12 @@
+// Evento compacto enviado por SSE cuando cambia la ocupación de un tramo de una instalación.
+// Un installationId nulo indica un bloqueo global que afecta a todas las instalaciones.
+
+package com.aytodeporte.dto;
+
+public record SlotDeltaEvent(
+        String type,
+        Long installationId,
+        String start,
+        String end,
+        String reason
+) {}
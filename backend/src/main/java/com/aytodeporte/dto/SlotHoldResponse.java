@@ -0,0 +1,16 @@
+// DTO de salida para una retención temporal de slots mientras el usuario confirma la reserva.
+// El token se envía después a la confirmación o a la creación de la reserva.
+
+package com.aytodeporte.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+public record SlotHoldResponse(
+        String token,
+        Long userId,
+        Long installationId,
+        LocalDateTime start,
+        LocalDateTime end,
+        Instant expiresAt
+) {}
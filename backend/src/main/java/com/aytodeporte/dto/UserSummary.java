@@ -0,0 +1,12 @@
+// DTO de salida con los datos de un usuario para el panel de administración.
+// Se construye directamente en la consulta: nunca carga el hash de la contraseña.
+
+package com.aytodeporte.dto;
+
+public record UserSummary(
+        Long id,
+        String email,
+        String nombre,
+        String apellido,
+        String rol
+) {}
@@ -0,0 +1,14 @@
+// DTO de salida con el estado de un turno de la sala de espera.
+// Mientras no se admite, position y retryAfterSeconds indican cuánto queda; al admitirse llega passExpiresAt.
+
+package com.aytodeporte.dto;
+
+import java.time.Instant;
+
+public record WaitingRoomStatus(
+        String ticket,
+        boolean admitted,
+        long position,
+        long retryAfterSeconds,
+        Instant passExpiresAt
+) {}
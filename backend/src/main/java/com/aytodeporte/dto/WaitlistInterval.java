@@ -0,0 +1,14 @@
+// Proyección ligera de una entrada pendiente de la lista de espera con su intervalo horario.
+// Se usa para cargar el índice de esperas en memoria sin materializar entidades.
+
+package com.aytodeporte.dto;
+
+import java.time.LocalDateTime;
+
+public record WaitlistInterval(
+        Long id,
+        Long installationId,
+        Long userId,
+        LocalDateTime start,
+        LocalDateTime end
+) {}
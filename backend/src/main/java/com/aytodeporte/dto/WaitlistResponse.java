@@ -0,0 +1,18 @@
+// DTO de salida para una entrada de la lista de espera.
+// reservationId solo viene informado cuando el tramo ya se ha asignado al usuario.
+
+package com.aytodeporte.dto;
+
+import java.time.LocalDateTime;
+
+public record WaitlistResponse(
+        Long id,
+        Long userId,
+        Long installationId,
+        String installationName,
+        LocalDateTime start,
+        LocalDateTime end,
+        String status,
+        Long reservationId,
+        LocalDateTime createdAt
+) {}
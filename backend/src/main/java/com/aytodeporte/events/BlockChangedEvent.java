@@ -0,0 +1,41 @@
+// Evento interno publicado cuando un bloqueo se crea o se elimina.
+// Un installationId nulo indica un bloqueo global que afecta a todas las instalaciones.
+
+package com.aytodeporte.events;
+
+import com.aytodeporte.models.Block;
+
+import java.time.LocalDateTime;
+
+public record BlockChangedEvent(
+        Long blockId,
+        Long installationId,
+        String reason,
+        LocalDateTime start,
+        LocalDateTime end,
+        boolean deleted
+) {
+
+    public static BlockChangedEvent created(Block b) {
+        return of(b, false);
+    }
+
+    public static BlockChangedEvent deleted(Block b) {
+        return of(b, true);
+    }
+
+    private static BlockChangedEvent of(Block b, boolean deleted) {
+        return new BlockChangedEvent(
+                b.getId(),
+                b.getInstallation() != null ? b.getInstallation().getId() : null,
+                b.getReason(),
+                b.getStart(),
+                b.getEnd(),
+                deleted
+        );
+    }
+
+    public boolean isGlobal() {
+        return installationId == null;
+    }
+}
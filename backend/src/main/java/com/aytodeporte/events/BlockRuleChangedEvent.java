@@ -0,0 +1,9 @@
+// Evento interno publicado cuando una regla de bloqueo recurrente se crea o se elimina.
+// Una regla puede afectar a cualquier día futuro, así que los consumidores la tratan como cambio general.
+
+package com.aytodeporte.events;
+
+public record BlockRuleChangedEvent(
+        Long ruleId,
+        boolean deleted
+) {}
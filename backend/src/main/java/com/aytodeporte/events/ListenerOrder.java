@@ -0,0 +1,25 @@
+// Orden de ejecución de los listeners que reaccionan tras el commit de reservas y bloqueos.
+// Primero se actualizan instantáneas y motores en memoria, luego se invalidan cachés y por último se publican versiones.
+
+package com.aytodeporte.events;
+
+public final class ListenerOrder {
+
+    // Instantáneas de datos de referencia (bloqueos) que leen los motores al recalcular
+    public static final int SNAPSHOTS = -10;
+
+    // Índices y calendario de slots: el resto se construye a partir de ellos
+    public static final int ENGINES = 0;
+
+    // Cachés de respuestas calculadas con los motores
+    public static final int CACHES = 10;
+
+    // Versiones por día (ETag): solo avanzan cuando la caché ya no sirve datos antiguos
+    public static final int VERSIONS = 20;
+
+    // Notificaciones a clientes conectados (SSE), con todo lo anterior ya consistente
+    public static final int NOTIFICATIONS = 30;
+
+    private ListenerOrder() {
+    }
+}
@@ -0,0 +1,34 @@
+// Evento interno publicado cuando una reserva se crea o se cancela.
+// Lo consumen los componentes en memoria tras el commit y, antes del commit, los acumulados de ocupación.
+
+package com.aytodeporte.events;
+
+import com.aytodeporte.models.Reservation;
+import com.aytodeporte.models.ReservationStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ReservationChangedEvent(
+        Long reservationId,
+        Long installationId,
+        Long userId,
+        LocalDateTime start,
+        LocalDateTime end,
+        ReservationStatus status,
+        BigDecimal amount
+) {
+
+    // Construye el evento a partir de la entidad ya persistida
+    public static ReservationChangedEvent of(Reservation r) {
+        return new ReservationChangedEvent(
+                r.getId(),
+                r.getInstallation().getId(),
+                r.getUser().getId(),
+                r.getStart(),
+                r.getEnd(),
+                r.getStatus(),
+                r.getAmount()
+        );
+    }
+}
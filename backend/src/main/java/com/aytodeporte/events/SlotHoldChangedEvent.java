@@ -0,0 +1,13 @@
+// Evento interno publicado cuando se crea, confirma, libera o caduca una retención temporal de slots.
+// Las retenciones viven solo en memoria, así que se publica al momento y no tras un commit.
+
+package com.aytodeporte.events;
+
+import java.time.LocalDateTime;
+
+public record SlotHoldChangedEvent(
+        Long installationId,
+        LocalDateTime start,
+        LocalDateTime end,
+        boolean active
+) {}
@@ -0,0 +1,31 @@
+// Evento interno publicado cuando una entrada entra o sale de la lista de espera pendiente.
+// El índice de esperas solo lo aplica tras el commit de la transacción que lo publica.
+
+package com.aytodeporte.events;
+
+import com.aytodeporte.models.WaitlistEntry;
+import com.aytodeporte.models.WaitlistStatus;
+
+import java.time.LocalDateTime;
+
+public record WaitlistChangedEvent(
+        Long entryId,
+        Long installationId,
+        Long userId,
+        LocalDateTime start,
+        LocalDateTime end,
+        WaitlistStatus status
+) {
+
+    // Construye el evento a partir de la entidad ya persistida
+    public static WaitlistChangedEvent of(WaitlistEntry e) {
+        return new WaitlistChangedEvent(
+                e.getId(),
+                e.getInstallation().getId(),
+                e.getUser().getId(),
+                e.getStart(),
+                e.getEnd(),
+                e.getStatus()
+        );
+    }
+}
@@ -0,0 +1,70 @@
+package com.aytodeporte.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "bloqueos_reglas")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlockRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "tipo_regla", nullable = false, length = 10)
+    @Convert(converter = BlockRuleKindConverter.class)
+    private BlockRuleKind kind;
+
+    // Ámbito: una instalación, un tipo de instalación o, si ambos son nulos, todas
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instalacion_id")
+    private Installation installation;
+
+    @Column(name = "tipo_instalacion")
+    @Convert(converter = InstallationTypeConverter.class)
+    private InstallationType installationType;
+
+    // 1 = lunes ... 7 = domingo (reglas semanales)
+    @Column(name = "dia_semana")
+    private Integer dayOfWeek;
+
+    // Día del mes (reglas mensuales); los meses sin ese día no se bloquean
+    @Column(name = "dia_mes")
+    private Integer dayOfMonth;
+
+    // Fechas ISO separadas por comas (reglas por lista de fechas)
+    @Column(name = "fechas", length = 2000)
+    private String dates;
+
+    @Column(name = "hora_inicio", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "hora_fin", nullable = false)
+    private LocalTime endTime;
+
+    @Column(name = "vigente_desde")
+    private LocalDate validFrom;
+
+    @Column(name = "vigente_hasta")
+    private LocalDate validUntil;
+
+    @Column(name = "motivo", nullable = false, length = 200)
+    private String reason;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "creado_por", nullable = false)
+    private User createdBy;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+// Enumeración de los tipos de regla de bloqueo recurrente y su valor asociado en base de datos.
+// Incluye conversión desde el string almacenado en la BD hacia el enum.
+
+package com.aytodeporte.models;
+
+public enum BlockRuleKind {
+
+    WEEKLY("semanal"),
+    MONTHLY("mensual"),
+    DATES("fechas");
+
+    private final String dbValue;
+
+    BlockRuleKind(String dbValue) {
+        this.dbValue = dbValue;
+    }
+
+    public String getDbValue() {
+        return dbValue;
+    }
+
+    public static BlockRuleKind fromDbValue(String value) {
+        if (value == null) return null;
+        for (BlockRuleKind k : values()) {
+            if (k.dbValue.equalsIgnoreCase(value)) {
+                return k;
+            }
+        }
+        throw new IllegalArgumentException("Tipo de regla de bloqueo desconocido: " + value);
+    }
+}
@@ -0,0 +1,21 @@
+// Conversor JPA para mapear BlockRuleKind con su valor String en base de datos.
+// Se aplica automáticamente a los campos de tipo BlockRuleKind.
+
+package com.aytodeporte.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class BlockRuleKindConverter implements AttributeConverter<BlockRuleKind, String> {
+
+    @Override
+    public String convertToDatabaseColumn(BlockRuleKind attribute) {
+        return attribute != null ? attribute.getDbValue() : null;
+    }
+
+    @Override
+    public BlockRuleKind convertToEntityAttribute(String dbData) {
+        return BlockRuleKind.fromDbValue(dbData);
+    }
+}
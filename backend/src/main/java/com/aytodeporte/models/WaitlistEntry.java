@@ -0,0 +1,47 @@
+package com.aytodeporte.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "lista_espera")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "usuario_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "instalacion_id", nullable = false)
+    private Installation installation;
+
+    @Column(name = "inicio", nullable = false)
+    private LocalDateTime start;
+
+    @Column(name = "fin", nullable = false)
+    private LocalDateTime end;
+
+    @Column(name = "estado", nullable = false, length = 20)
+    @Convert(converter = WaitlistStatusConverter.class)
+    private WaitlistStatus status;
+
+    // Reserva creada al asignar el tramo; nula mientras espera
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "reserva_id")
+    private Reservation reservation;
+
+    @Column(name = "creado_en", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,31 @@
+// Enumeración de los estados de una entrada en lista de espera y su valor asociado en base de datos.
+// Incluye conversión desde el string almacenado en la BD hacia el enum.
+
+package com.aytodeporte.models;
+
+public enum WaitlistStatus {
+
+    PENDING("pendiente"),
+    ASSIGNED("asignada"),
+    CANCELLED("cancelada");
+
+    private final String dbValue;
+
+    WaitlistStatus(String dbValue) {
+        this.dbValue = dbValue;
+    }
+
+    public String getDbValue() {
+        return dbValue;
+    }
+
+    public static WaitlistStatus fromDbValue(String value) {
+        if (value == null) return null;
+        for (WaitlistStatus s : values()) {
+            if (s.dbValue.equalsIgnoreCase(value)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("Estado de lista de espera desconocido: " + value);
+    }
+}
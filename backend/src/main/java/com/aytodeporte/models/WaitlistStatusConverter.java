@@ -0,0 +1,21 @@
+// Conversor JPA para mapear WaitlistStatus con su valor String en base de datos.
+// Se aplica automáticamente a los campos de tipo WaitlistStatus.
+
+package com.aytodeporte.models;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+@Converter(autoApply = true)
+public class WaitlistStatusConverter implements AttributeConverter<WaitlistStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(WaitlistStatus attribute) {
+        return attribute != null ? attribute.getDbValue() : null;
+    }
+
+    @Override
+    public WaitlistStatus convertToEntityAttribute(String dbData) {
+        return WaitlistStatus.fromDbValue(dbData);
+    }
+}
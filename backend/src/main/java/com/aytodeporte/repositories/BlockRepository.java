@@ -3,8 +3,11 @@
 
 package com.aytodeporte.repositories;
 
+import com.aytodeporte.dto.BlockInterval;
+import com.aytodeporte.dto.BlockResponse;
 import com.aytodeporte.models.Block;
 import com.aytodeporte.models.Installation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
@@ -13,17 +16,55 @@ import java.util.List;
 
 public interface BlockRepository extends JpaRepository<Block, Long> {
 
-    // Bloqueos globales (sin instalación asociada)
-    List<Block> findByInstallationIsNull();
-
     // Bloqueos de una instalación concreta
     List<Block> findByInstallation(Installation installation);
 
-    // Todos los bloqueos ordenados por fecha de inicio
-    List<Block> findAllByOrderByStartAsc();
+    // Todos los bloqueos ordenados por fecha de inicio, ya como DTO en una sola consulta
+    @Query("""
+        SELECT new com.aytodeporte.dto.BlockResponse(
+            b.id, i.id, i.name, b.reason, b.start, b.end, u.id, u.email, b.createdAt)
+        FROM Block b
+        LEFT JOIN b.installation i
+        JOIN b.createdBy u
+        ORDER BY b.start
+    """)
+    List<BlockResponse> findAllResponses();
 
-    // Bloqueos de una instalación ordenados por inicio
-    List<Block> findByInstallationOrderByStartAsc(Installation installation);
+    // Página de bloqueos a partir de (afterStart, afterId) sobre idx_bloqueos_inicio, sin OFFSET
+    @Query("""
+        SELECT new com.aytodeporte.dto.BlockResponse(
+            b.id, i.id, i.name, b.reason, b.start, b.end, u.id, u.email, b.createdAt)
+        FROM Block b
+        LEFT JOIN b.installation i
+        JOIN b.createdBy u
+        WHERE b.start > :afterStart OR (b.start = :afterStart AND b.id > :afterId)
+        ORDER BY b.start, b.id
+    """)
+    List<BlockResponse> findResponsePage(LocalDateTime afterStart, Long afterId, Limit limit);
+
+    // Bloqueos de una instalación ordenados por inicio, como DTO
+    @Query("""
+        SELECT new com.aytodeporte.dto.BlockResponse(
+            b.id, i.id, i.name, b.reason, b.start, b.end, u.id, u.email, b.createdAt)
+        FROM Block b
+        JOIN b.installation i
+        JOIN b.createdBy u
+        WHERE i.id = :installationId
+        ORDER BY b.start
+    """)
+    List<BlockResponse> findResponsesByInstallation(Long installationId);
+
+    // Bloqueos globales (sin instalación asociada) ordenados por inicio, como DTO
+    @Query("""
+        SELECT new com.aytodeporte.dto.BlockResponse(
+            b.id, i.id, i.name, b.reason, b.start, b.end, u.id, u.email, b.createdAt)
+        FROM Block b
+        LEFT JOIN b.installation i
+        JOIN b.createdBy u
+        WHERE i.id IS NULL
+        ORDER BY b.start
+    """)
+    List<BlockResponse> findGlobalResponses();
 
     // Bloqueos que se solapan con un rango horario en una instalación
     @Query("""
@@ -34,4 +75,23 @@ public interface BlockRepository extends JpaRepository<Block, Long> {
     List<Block> findOverlapping(Installation installation,
                                 LocalDateTime start,
                                 LocalDateTime end);
+
+    // Todos los bloqueos como proyección ligera (carga de la instantánea en memoria)
+    @Query("""
+        SELECT new com.aytodeporte.dto.BlockInterval(b.id, i.id, b.reason, b.start, b.end)
+        FROM Block b
+        LEFT JOIN b.installation i
+        ORDER BY b.start
+    """)
+    List<BlockInterval> findAllIntervals();
+
+    // Bloqueos que terminan después de un instante, como proyección ligera
+    @Query("""
+        SELECT new com.aytodeporte.dto.BlockInterval(b.id, i.id, b.reason, b.start, b.end)
+        FROM Block b
+        LEFT JOIN b.installation i
+        WHERE b.end > :from
+        ORDER BY b.start
+    """)
+    List<BlockInterval> findIntervalsEndingAfter(LocalDateTime from);
 }
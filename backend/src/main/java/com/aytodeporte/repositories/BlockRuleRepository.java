@@ -0,0 +1,22 @@
+// Repositorio JPA para las reglas de bloqueo recurrentes.
+// Las reglas son pocas: se cargan todas de una vez para expandirlas en memoria.
+
+package com.aytodeporte.repositories;
+
+import com.aytodeporte.models.BlockRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface BlockRuleRepository extends JpaRepository<BlockRule, Long> {
+
+    // Todas las reglas con su instalación ya cargada
+    @Query("""
+        SELECT r FROM BlockRule r
+        LEFT JOIN FETCH r.installation
+        LEFT JOIN FETCH r.createdBy
+        ORDER BY r.id
+    """)
+    List<BlockRule> findAllWithInstallation();
+}
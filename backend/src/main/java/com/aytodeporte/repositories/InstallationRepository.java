@@ -16,5 +16,9 @@ public interface InstallationRepository extends JpaRepository<Installation, Long
 
     List<Installation> findByActiveTrueOrderByNameAsc();
 
+    long countByActiveTrue();
+
+    List<Installation> findByTypeAndActiveTrueOrderByNameAsc(InstallationType type);
+
     Optional<Installation> findByTypeAndNumber(InstallationType type, Integer number);
 }
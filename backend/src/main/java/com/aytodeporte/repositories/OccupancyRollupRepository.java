@@ -0,0 +1,143 @@
+// Repositorio JDBC de la tabla ocupacion_resumen: acumulados por instalación, día y franja de una hora.
+// Las altas y cancelaciones suman o restan con un upsert; los informes agregan las filas de un rango de días.
+
+package com.aytodeporte.repositories;
+
+import com.aytodeporte.dto.OccupancyRollupRow;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "aytodeporte.jdbc.repository", histogram = true)
+public class OccupancyRollupRepository {
+
+    // VALUES() en lugar del alias de fila de MySQL 8.0.19+ para que el mismo SQL funcione en H2
+    private static final String UPSERT_DELTA = """
+        INSERT INTO ocupacion_resumen (instalacion_id, fecha, hora, reservas, minutos_reservados, importe)
+        VALUES (?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+          reservas = reservas + VALUES(reservas),
+          minutos_reservados = minutos_reservados + VALUES(minutos_reservados),
+          importe = importe + VALUES(importe)
+    """;
+
+    private static final String DELETE_ALL = "DELETE FROM ocupacion_resumen";
+
+    // Cada tramo de 30 minutos reclamado aporta su parte proporcional del importe de la reserva
+    private static final String INSERT_FROM_SLOTS = """
+        INSERT INTO ocupacion_resumen (instalacion_id, fecha, hora, reservas, minutos_reservados, importe)
+        SELECT s.instalacion_id,
+               CAST(s.inicio_slot AS DATE),
+               HOUR(s.inicio_slot),
+               SUM(CASE WHEN s.inicio_slot = r.inicio THEN 1 ELSE 0 END),
+               COUNT(*) * 30,
+               SUM(r.importe_calculado * 30 / TIMESTAMPDIFF(MINUTE, r.inicio, r.fin))
+        FROM reservas_slots s
+        JOIN reservas r ON r.id = s.reserva_id
+        WHERE r.estado = 'confirmada'
+        GROUP BY s.instalacion_id, CAST(s.inicio_slot AS DATE), HOUR(s.inicio_slot)
+    """;
+
+    private static final String COUNT_ROWS = "SELECT COUNT(*) FROM ocupacion_resumen";
+
+    // Las cancelaciones dejan filas a cero: solo se listan instalaciones con minutos reservados
+    private static final String TOTALS_BY_INSTALLATION = """
+        SELECT o.instalacion_id, i.nombre, SUM(o.reservas), SUM(o.minutos_reservados), SUM(o.importe)
+        FROM ocupacion_resumen o
+        JOIN instalaciones i ON i.id = o.instalacion_id
+        WHERE o.fecha >= ?
+          AND o.fecha < ?
+          %s
+        GROUP BY o.instalacion_id, i.nombre
+        HAVING SUM(o.minutos_reservados) > 0
+        ORDER BY i.nombre
+    """;
+
+    private static final String TOTALS_BY_DAY = """
+        SELECT o.fecha, SUM(o.reservas), SUM(o.minutos_reservados), SUM(o.importe)
+        FROM ocupacion_resumen o
+        WHERE o.fecha >= ?
+          AND o.fecha < ?
+          %s
+        GROUP BY o.fecha
+        ORDER BY o.fecha
+    """;
+
+    private static final String TOTALS_BY_HOUR = """
+        SELECT o.hora, SUM(o.reservas), SUM(o.minutos_reservados), SUM(o.importe)
+        FROM ocupacion_resumen o
+        WHERE o.fecha >= ?
+          AND o.fecha < ?
+          %s
+        GROUP BY o.hora
+        ORDER BY o.hora
+    """;
+
+    private static final String INSTALLATION_FILTER = "AND o.instalacion_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Aplica en un único lote los cambios de una transacción, ya fusionados y en orden de clave
+    public void apply(List<OccupancyRollupRow> deltas) {
+        jdbcTemplate.batchUpdate(UPSERT_DELTA, deltas, deltas.size(), (ps, d) -> {
+            ps.setLong(1, d.installationId());
+            ps.setDate(2, Date.valueOf(d.date()));
+            ps.setInt(3, d.hour());
+            ps.setLong(4, d.reservations());
+            ps.setLong(5, d.bookedMinutes());
+            ps.setBigDecimal(6, d.revenue());
+        });
+    }
+
+    // Recalcula todos los acumulados desde los tramos reclamados; devuelve las filas generadas.
+    // En una sola transacción: los informes nunca ven la tabla vacía a medio reconstruir.
+    @Transactional
+    public int rebuild() {
+        jdbcTemplate.update(DELETE_ALL);
+        return jdbcTemplate.update(INSERT_FROM_SLOTS);
+    }
+
+    public boolean isEmpty() {
+        Integer rows = jdbcTemplate.queryForObject(COUNT_ROWS, Integer.class);
+        return rows == null || rows == 0;
+    }
+
+    // Totales por instalación de los días [from, to)
+    public List<OccupancyRollupRow> totalsByInstallation(LocalDate from, LocalDate to, Long installationId) {
+        return jdbcTemplate.query(filtered(TOTALS_BY_INSTALLATION, installationId), (rs, i) -> new OccupancyRollupRow(
+                rs.getLong(1), rs.getString(2), null, null,
+                rs.getLong(3), rs.getLong(4), rs.getBigDecimal(5)), params(from, to, installationId));
+    }
+
+    // Totales por día de los días [from, to), sumando las instalaciones del filtro
+    public List<OccupancyRollupRow> totalsByDay(LocalDate from, LocalDate to, Long installationId) {
+        return jdbcTemplate.query(filtered(TOTALS_BY_DAY, installationId), (rs, i) -> new OccupancyRollupRow(
+                installationId, null, rs.getDate(1).toLocalDate(), null,
+                rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)), params(from, to, installationId));
+    }
+
+    // Totales por franja horaria de los días [from, to), sumando las instalaciones del filtro
+    public List<OccupancyRollupRow> totalsByHour(LocalDate from, LocalDate to, Long installationId) {
+        return jdbcTemplate.query(filtered(TOTALS_BY_HOUR, installationId), (rs, i) -> new OccupancyRollupRow(
+                installationId, null, null, rs.getInt(1),
+                rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4)), params(from, to, installationId));
+    }
+
+    private static String filtered(String sql, Long installationId) {
+        return sql.formatted(installationId != null ? INSTALLATION_FILTER : "");
+    }
+
+    private static Object[] params(LocalDate from, LocalDate to, Long installationId) {
+        return installationId != null
+                ? new Object[]{Date.valueOf(from), Date.valueOf(to), installationId}
+                : new Object[]{Date.valueOf(from), Date.valueOf(to)};
+    }
+}
@@ -0,0 +1,83 @@
+// Repositorio JDBC para insertar muchas reservas en un único lote (series periódicas).
+// Evita un INSERT y un viaje a la BD por reserva; los IDs generados se asignan a las entidades.
+
+package com.aytodeporte.repositories;
+
+import com.aytodeporte.models.Reservation;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "aytodeporte.jdbc.repository", histogram = true)
+public class ReservationBatchRepository {
+
+    private static final String INSERT_RESERVATION = """
+        INSERT INTO reservas (usuario_id, instalacion_id, inicio, fin, estado,
+                              codigo_6, importe_calculado, creado_en)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+    """;
+
+    private static final String DELETE_RESERVATION = "DELETE FROM reservas WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Inserta las reservas en lote dentro de la transacción en curso y rellena su ID
+    public void insertAll(List<Reservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    INSERT_RESERVATION, Statement.RETURN_GENERATED_KEYS)) {
+
+                for (Reservation r : reservations) {
+                    ps.setLong(1, r.getUser().getId());
+                    ps.setLong(2, r.getInstallation().getId());
+                    ps.setTimestamp(3, Timestamp.valueOf(r.getStart()));
+                    ps.setTimestamp(4, Timestamp.valueOf(r.getEnd()));
+                    ps.setString(5, r.getStatus().getDbValue());
+                    ps.setString(6, r.getCode());
+                    ps.setBigDecimal(7, r.getAmount());
+                    ps.setTimestamp(8, Timestamp.valueOf(r.getCreatedAt()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                // Las claves se devuelven en el mismo orden en que se añadieron al lote
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    for (Reservation r : reservations) {
+                        if (!keys.next()) {
+                            throw new DataRetrievalFailureException(
+                                    "No se han devuelto todos los IDs generados del lote de reservas");
+                        }
+                        r.setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // Borra en lote reservas recién insertadas que no han llegado a confirmarse
+    public void deleteAll(Collection<Long> ids) {
+        List<Object[]> rows = ids.stream()
+                .map(id -> new Object[]{id})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_RESERVATION, rows);
+        }
+    }
+}
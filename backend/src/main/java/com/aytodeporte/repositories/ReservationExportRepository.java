@@ -0,0 +1,103 @@
+// Repositorio JDBC de solo lectura para exportar reservas por rango de fechas con un cursor hacia delante.
+// Cada fila se entrega al consumidor en cuanto llega del servidor, sin cargar el resultado en memoria.
+
+package com.aytodeporte.repositories;
+
+import com.aytodeporte.dto.ReservationExportRow;
+import com.aytodeporte.models.ReservationStatus;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "aytodeporte.jdbc.repository", histogram = true)
+public class ReservationExportRepository {
+
+    private static final String SELECT_RANGE = """
+        SELECT r.id, r.codigo_6, r.usuario_id, u.email, r.instalacion_id, i.nombre,
+               r.inicio, r.fin, r.estado, r.importe_calculado, r.creado_en
+        FROM reservas r
+        JOIN usuarios u ON u.id = r.usuario_id
+        JOIN instalaciones i ON i.id = r.instalacion_id
+        WHERE r.inicio >= ?
+          AND r.inicio < ?
+        ORDER BY r.inicio, r.id
+    """;
+
+    private static final String SELECT_RANGE_BY_INSTALLATION = """
+        SELECT r.id, r.codigo_6, r.usuario_id, u.email, r.instalacion_id, i.nombre,
+               r.inicio, r.fin, r.estado, r.importe_calculado, r.creado_en
+        FROM reservas r
+        JOIN usuarios u ON u.id = r.usuario_id
+        JOIN instalaciones i ON i.id = r.instalacion_id
+        WHERE r.inicio >= ?
+          AND r.inicio < ?
+          AND r.instalacion_id = ?
+        ORDER BY r.inicio, r.id
+    """;
+
+    // Filas por viaje en los drivers que respetan el fetch size (H2, PostgreSQL...)
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Recorre las reservas que empiezan en [from, to), opcionalmente de una sola instalación, por (inicio, id)
+    public void forEach(LocalDateTime from, LocalDateTime to, Long installationId,
+                        Consumer<ReservationExportRow> consumer) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            String sql = installationId == null ? SELECT_RANGE : SELECT_RANGE_BY_INSTALLATION;
+            try (PreparedStatement ps = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                ps.setFetchSize(fetchSize(connection));
+                ps.setTimestamp(1, Timestamp.valueOf(from));
+                ps.setTimestamp(2, Timestamp.valueOf(to));
+                if (installationId != null) {
+                    ps.setLong(3, installationId);
+                }
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        consumer.accept(mapRow(rs));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // Connector/J solo transmite fila a fila con Integer.MIN_VALUE: con un tamaño positivo (y sin
+    // useCursorFetch=true en la URL) lee todo el resultado en memoria antes de devolver la primera fila
+    private static int fetchSize(Connection connection) throws SQLException {
+        return "MySQL".equals(connection.getMetaData().getDatabaseProductName())
+                ? Integer.MIN_VALUE
+                : FETCH_SIZE;
+    }
+
+    private static ReservationExportRow mapRow(ResultSet rs) throws SQLException {
+        return new ReservationExportRow(
+                rs.getLong(1),
+                rs.getString(2),
+                rs.getLong(3),
+                rs.getString(4),
+                rs.getLong(5),
+                rs.getString(6),
+                rs.getTimestamp(7).toLocalDateTime(),
+                rs.getTimestamp(8).toLocalDateTime(),
+                ReservationStatus.fromDbValue(rs.getString(9)).name(),
+                rs.getBigDecimal(10),
+                rs.getTimestamp(11).toLocalDateTime()
+        );
+    }
+}
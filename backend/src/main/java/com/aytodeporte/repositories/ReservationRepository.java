@@ -3,17 +3,181 @@
 
 package com.aytodeporte.repositories;
 
+import com.aytodeporte.dto.AffectedReservation;
+import com.aytodeporte.dto.ReservationInterval;
+import com.aytodeporte.dto.ReservationResponse;
 import com.aytodeporte.models.Installation;
 import com.aytodeporte.models.Reservation;
 import com.aytodeporte.models.ReservationStatus;
 import com.aytodeporte.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
-    List<Reservation> findByInstallationAndStatus(Installation installation, ReservationStatus status);
+    // Reservas de un usuario ya como DTO: una sola consulta con los JOIN, sin cargas LAZY por fila
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationResponse(
+            r.id, u.id, u.email, i.id, i.name, r.start, r.end, r.status, r.code, r.amount)
+        FROM Reservation r
+        JOIN r.user u
+        JOIN r.installation i
+        WHERE u.id = :userId
+          AND r.status = :status
+        ORDER BY r.start
+    """)
+    List<ReservationResponse> findResponsesByUser(Long userId, ReservationStatus status);
 
-    List<Reservation> findByUserAndStatus(User user, ReservationStatus status);
+    // Reservas de una instalación ya como DTO, igual que findResponsesByUser
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationResponse(
+            r.id, u.id, u.email, i.id, i.name, r.start, r.end, r.status, r.code, r.amount)
+        FROM Reservation r
+        JOIN r.user u
+        JOIN r.installation i
+        WHERE i.id = :installationId
+          AND r.status = :status
+        ORDER BY r.start
+    """)
+    List<ReservationResponse> findResponsesByInstallation(Long installationId, ReservationStatus status);
+
+    // Página de reservas de una instalación a partir de (afterStart, afterId), sin OFFSET:
+    // recorre idx_reservas_instalacion_inicio (que incluye el id) desde la posición del cursor
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationResponse(
+            r.id, u.id, u.email, i.id, i.name, r.start, r.end, r.status, r.code, r.amount)
+        FROM Reservation r
+        JOIN r.user u
+        JOIN r.installation i
+        WHERE i.id = :installationId
+          AND r.status = :status
+          AND (r.start > :afterStart OR (r.start = :afterStart AND r.id > :afterId))
+        ORDER BY r.start, r.id
+    """)
+    List<ReservationResponse> findResponsePageByInstallation(Long installationId,
+                                                             ReservationStatus status,
+                                                             LocalDateTime afterStart,
+                                                             Long afterId,
+                                                             Limit limit);
+
+    // Intervalos de reservas en un estado que terminan después de un instante (carga de índices)
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationInterval(
+            r.id, r.installation.id, r.user.id, r.start, r.end)
+        FROM Reservation r
+        WHERE r.status = :status
+          AND r.end > :from
+        ORDER BY r.installation.id, r.start
+    """)
+    List<ReservationInterval> findIntervalsEndingAfter(ReservationStatus status, LocalDateTime from);
+
+    long countByStatusAndEndAfter(ReservationStatus status, LocalDateTime from);
+
+    // Reservas de una instalación que se solapan con [start, end).
+    // earliestStart (start menos la duración máxima) acota el rango sobre idx_reservas_instalacion_inicio.
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationInterval(
+            r.id, r.installation.id, r.user.id, r.start, r.end)
+        FROM Reservation r
+        WHERE r.installation = :installation
+          AND r.start >= :earliestStart
+          AND r.start < :end
+          AND r.end > :start
+          AND r.status = :status
+        ORDER BY r.start
+    """)
+    List<ReservationInterval> findOverlappingByInstallation(Installation installation,
+                                                            ReservationStatus status,
+                                                            LocalDateTime earliestStart,
+                                                            LocalDateTime start,
+                                                            LocalDateTime end);
+
+    // Reservas de un usuario que se solapan con [start, end), acotadas sobre idx_reservas_usuario_inicio
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationInterval(
+            r.id, r.installation.id, r.user.id, r.start, r.end)
+        FROM Reservation r
+        WHERE r.user = :user
+          AND r.start >= :earliestStart
+          AND r.start < :end
+          AND r.end > :start
+          AND r.status = :status
+        ORDER BY r.start
+    """)
+    List<ReservationInterval> findOverlappingByUser(User user,
+                                                    ReservationStatus status,
+                                                    LocalDateTime earliestStart,
+                                                    LocalDateTime start,
+                                                    LocalDateTime end);
+
+    // Reservas de varias instalaciones que se solapan con un rango (parrilla multi-instalación)
+    @Query("""
+        SELECT new com.aytodeporte.dto.ReservationInterval(
+            r.id, r.installation.id, r.user.id, r.start, r.end)
+        FROM Reservation r
+        WHERE r.installation IN :installations
+          AND r.start >= :earliestStart
+          AND r.start < :end
+          AND r.end > :start
+          AND r.status = :status
+    """)
+    List<ReservationInterval> findOverlappingByInstallations(Collection<Installation> installations,
+                                                             ReservationStatus status,
+                                                             LocalDateTime earliestStart,
+                                                             LocalDateTime start,
+                                                             LocalDateTime end);
+
+    // Reservas de todas las instalaciones que se solapan con un rango, con datos para informar del conflicto
+    @Query("""
+        SELECT new com.aytodeporte.dto.AffectedReservation(
+            r.id, u.id, u.email, i.id, i.name, r.start, r.end, r.code, r.amount)
+        FROM Reservation r
+        JOIN r.user u
+        JOIN r.installation i
+        WHERE r.start >= :earliestStart
+          AND r.start < :end
+          AND r.end > :start
+          AND r.status = :status
+        ORDER BY r.start
+    """)
+    List<AffectedReservation> findAffected(ReservationStatus status,
+                                           LocalDateTime earliestStart,
+                                           LocalDateTime start,
+                                           LocalDateTime end);
+
+    // Igual que findAffected pero limitado a una instalación
+    @Query("""
+        SELECT new com.aytodeporte.dto.AffectedReservation(
+            r.id, u.id, u.email, i.id, i.name, r.start, r.end, r.code, r.amount)
+        FROM Reservation r
+        JOIN r.user u
+        JOIN r.installation i
+        WHERE r.installation = :installation
+          AND r.start >= :earliestStart
+          AND r.start < :end
+          AND r.end > :start
+          AND r.status = :status
+        ORDER BY r.start
+    """)
+    List<AffectedReservation> findAffectedByInstallation(Installation installation,
+                                                         ReservationStatus status,
+                                                         LocalDateTime earliestStart,
+                                                         LocalDateTime start,
+                                                         LocalDateTime end);
+
+    // Cambio de estado masivo en un único UPDATE; solo afecta a las que siguen en el estado esperado
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Reservation r
+        SET r.status = :status
+        WHERE r.id IN :ids
+          AND r.status = :current
+    """)
+    int updateStatus(Collection<Long> ids, ReservationStatus current, ReservationStatus status);
 }
@@ -0,0 +1,116 @@
+// Repositorio JDBC de la tabla reservas_slots: un registro por instalación y tramo de 30 minutos.
+// La clave primaria (instalacion_id, inicio_slot) convierte la doble reserva en un error de clave duplicada.
+
+package com.aytodeporte.repositories;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "aytodeporte.jdbc.repository", histogram = true)
+public class SlotClaimRepository {
+
+    private static final String INSERT_CLAIM =
+            "INSERT INTO reservas_slots (instalacion_id, inicio_slot, reserva_id) VALUES (?, ?, ?)";
+
+    private static final String INSERT_CLAIM_IF_FREE =
+            "INSERT IGNORE INTO reservas_slots (instalacion_id, inicio_slot, reserva_id) VALUES (?, ?, ?)";
+
+    private static final String COUNT_BY_RESERVATION =
+            "SELECT COUNT(*) FROM reservas_slots WHERE reserva_id = ?";
+
+    private static final String COUNT_BY_RESERVATIONS =
+            "SELECT reserva_id, COUNT(*) FROM reservas_slots WHERE reserva_id IN (%s) GROUP BY reserva_id";
+
+    private static final String DELETE_BY_RESERVATION =
+            "DELETE FROM reservas_slots WHERE reserva_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Reclama todos los tramos de una reserva en un único lote.
+    // Si otro los ha reclamado antes se lanza DuplicateKeyException y la transacción se deshace.
+    public void claim(Long installationId, Long reservationId, List<LocalDateTime> slotStarts) {
+        jdbcTemplate.batchUpdate(INSERT_CLAIM, slotStarts, slotStarts.size(), (ps, slotStart) -> {
+            ps.setLong(1, installationId);
+            ps.setTimestamp(2, Timestamp.valueOf(slotStart));
+            ps.setLong(3, reservationId);
+        });
+    }
+
+    // Reclama los tramos sin lanzar error si alguno ya está ocupado: en ese caso borra los que sí
+    // se insertaron y devuelve false, sin invalidar la transacción que lo llama
+    public boolean tryClaim(Long installationId, Long reservationId, List<LocalDateTime> slotStarts) {
+        jdbcTemplate.batchUpdate(INSERT_CLAIM_IF_FREE, slotStarts, slotStarts.size(), (ps, slotStart) -> {
+            ps.setLong(1, installationId);
+            ps.setTimestamp(2, Timestamp.valueOf(slotStart));
+            ps.setLong(3, reservationId);
+        });
+
+        // Los recuentos del lote no son fiables con rewriteBatchedStatements: se cuenta lo insertado
+        Integer claimed = jdbcTemplate.queryForObject(COUNT_BY_RESERVATION, Integer.class, reservationId);
+        if (claimed != null && claimed == slotStarts.size()) {
+            return true;
+        }
+        release(reservationId);
+        return false;
+    }
+
+    // Como tryClaim para varias reservas de una misma instalación, en un único lote: devuelve las que
+    // no han podido reclamar todos sus tramos, ya sin ninguno, para que el llamante las descarte
+    public Set<Long> tryClaimAll(Long installationId, Map<Long, List<LocalDateTime>> slotStartsByReservation) {
+        List<Object[]> rows = new ArrayList<>();
+        slotStartsByReservation.forEach((reservationId, slotStarts) -> {
+            for (LocalDateTime slotStart : slotStarts) {
+                rows.add(new Object[]{installationId, Timestamp.valueOf(slotStart), reservationId});
+            }
+        });
+        if (rows.isEmpty()) {
+            return Set.of();
+        }
+        jdbcTemplate.batchUpdate(INSERT_CLAIM_IF_FREE, rows);
+
+        Map<Long, Integer> claimed = new HashMap<>();
+        String placeholders = String.join(", ", Collections.nCopies(slotStartsByReservation.size(), "?"));
+        jdbcTemplate.query(COUNT_BY_RESERVATIONS.formatted(placeholders),
+                rs -> { claimed.put(rs.getLong(1), rs.getInt(2)); },
+                slotStartsByReservation.keySet().toArray());
+
+        Set<Long> unclaimed = new LinkedHashSet<>();
+        slotStartsByReservation.forEach((reservationId, slotStarts) -> {
+            if (claimed.getOrDefault(reservationId, 0) != slotStarts.size()) {
+                unclaimed.add(reservationId);
+            }
+        });
+        releaseAll(unclaimed);
+        return unclaimed;
+    }
+
+    // Libera los tramos de una reserva cancelada
+    public int release(Long reservationId) {
+        return jdbcTemplate.update(DELETE_BY_RESERVATION, reservationId);
+    }
+
+    // Libera en un único lote los tramos de varias reservas canceladas
+    public void releaseAll(Collection<Long> reservationIds) {
+        List<Object[]> rows = reservationIds.stream()
+                .map(id -> new Object[]{id})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_BY_RESERVATION, rows);
+        }
+    }
+}
@@ -3,9 +3,13 @@
 
 package com.aytodeporte.repositories;
 
+import com.aytodeporte.dto.UserSummary;
 import com.aytodeporte.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -13,4 +17,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
 
     Optional<User> findByEmail(String email);
+
+    // Página de usuarios con id mayor que el del cursor: rango sobre la clave primaria, sin OFFSET
+    @Query("""
+        SELECT new com.aytodeporte.dto.UserSummary(u.id, u.email, u.nombre, u.apellido, u.rol)
+        FROM User u
+        WHERE u.id > :afterId
+        ORDER BY u.id
+    """)
+    List<UserSummary> findSummaryPage(Long afterId, Limit limit);
 }
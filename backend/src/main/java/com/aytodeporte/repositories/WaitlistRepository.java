@@ -0,0 +1,65 @@
+// Repositorio JPA de la lista de espera: carga del índice en memoria, consultas por usuario
+// y búsqueda de esperas que se solapan con un tramo cuando el índice aún no está listo.
+
+package com.aytodeporte.repositories;
+
+import com.aytodeporte.dto.WaitlistInterval;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.User;
+import com.aytodeporte.models.WaitlistEntry;
+import com.aytodeporte.models.WaitlistStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // Esperas en un estado que empiezan después de un instante (carga del índice)
+    @Query("""
+        SELECT new com.aytodeporte.dto.WaitlistInterval(
+            w.id, w.installation.id, w.user.id, w.start, w.end)
+        FROM WaitlistEntry w
+        WHERE w.status = :status
+          AND w.start > :from
+        ORDER BY w.id
+    """)
+    List<WaitlistInterval> findIntervalsStartingAfter(WaitlistStatus status, LocalDateTime from);
+
+    // Esperas de una instalación que se solapan con [start, end), por orden de llegada.
+    // earliestStart acota el rango sobre idx_espera_instalacion_inicio igual que en reservas.
+    @Query("""
+        SELECT new com.aytodeporte.dto.WaitlistInterval(
+            w.id, w.installation.id, w.user.id, w.start, w.end)
+        FROM WaitlistEntry w
+        WHERE w.installation = :installation
+          AND w.start >= :earliestStart
+          AND w.start < :end
+          AND w.end > :start
+          AND w.status = :status
+        ORDER BY w.id
+    """)
+    List<WaitlistInterval> findOverlapping(Installation installation,
+                                           WaitlistStatus status,
+                                           LocalDateTime earliestStart,
+                                           LocalDateTime start,
+                                           LocalDateTime end);
+
+    // Esperas de un usuario que aún no han empezado, con su instalación ya cargada
+    @Query("""
+        SELECT w FROM WaitlistEntry w
+        JOIN FETCH w.installation
+        WHERE w.user = :user
+          AND w.start > :from
+        ORDER BY w.start
+    """)
+    List<WaitlistEntry> findUpcomingByUser(User user, LocalDateTime from);
+
+    boolean existsByUserAndInstallationAndStartAndStatus(User user,
+                                                         Installation installation,
+                                                         LocalDateTime start,
+                                                         WaitlistStatus status);
+
+    long countByUserAndStatusAndStartAfter(User user, WaitlistStatus status, LocalDateTime from);
+}
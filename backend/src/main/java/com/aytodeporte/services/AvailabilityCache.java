@@ -0,0 +1,151 @@
+// Caché acotada (LRU) de respuestas de disponibilidad diaria por instalación y fecha.
+// Se invalida con precisión tras el commit de reservas y bloqueos y lleva estadísticas de aciertos.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.AvailabilityCacheStats;
+import com.aytodeporte.dto.DailyAvailabilityResponse;
+import com.aytodeporte.events.BlockChangedEvent;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.events.SlotHoldChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+public class AvailabilityCache {
+
+    private final int maxEntries;
+    private final Map<Key, DailyAvailabilityResponse> entries;
+
+    // El LinkedHashMap en orden de acceso se modifica incluso al leer. ReentrantLock y no synchronized:
+    // con hilos virtuales un monitor disputado retiene el hilo portador mientras espera
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Se incrementa antes de cada invalidación: una respuesta calculada antes no se guarda
+    private final AtomicLong changes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AvailabilityCache(@Value("${aytodeporte.availability-cache.max-entries:2000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, DailyAvailabilityResponse> eldest) {
+                if (size() > AvailabilityCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public DailyAvailabilityResponse get(Long installationId, LocalDate date) {
+        DailyAvailabilityResponse cached;
+        lock.lock();
+        try {
+            cached = entries.get(new Key(installationId, date));
+        } finally {
+            lock.unlock();
+        }
+        (cached != null ? hits : misses).incrementAndGet();
+        return cached;
+    }
+
+    // Marca que se toma antes de calcular una respuesta y se pasa después a put
+    public long stamp() {
+        return changes.get();
+    }
+
+    public void put(DailyAvailabilityResponse response, long stamp) {
+        Key key = new Key(response.installationId(), LocalDate.parse(response.date()));
+        lock.lock();
+        try {
+            if (changes.get() == stamp) {
+                entries.put(key, response);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public AvailabilityCacheStats stats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        long h = hits.get();
+        long m = misses.get();
+        double ratio = h + m == 0 ? 0.0 : (double) h / (h + m);
+        return new AvailabilityCacheStats(size, maxEntries, h, m, evictions.get(), invalidations.get(), ratio);
+    }
+
+    // ===================== INVALIDACIÓN =====================
+
+    @Order(ListenerOrder.CACHES)
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        invalidate(event.installationId(), event.start().toLocalDate(), event.end().toLocalDate());
+    }
+
+    // Un bloqueo global invalida todas las instalaciones en sus días
+    @Order(ListenerOrder.CACHES)
+    @TransactionalEventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        invalidate(event.installationId(), event.start().toLocalDate(), event.end().toLocalDate());
+    }
+
+    @Order(ListenerOrder.CACHES)
+    @EventListener
+    public void onHoldChanged(SlotHoldChangedEvent event) {
+        invalidate(event.installationId(), event.start().toLocalDate(), event.end().toLocalDate());
+    }
+
+    // Las reglas recurrentes pueden afectar a cualquier día: se vacía la caché entera
+    @Order(ListenerOrder.CACHES)
+    @TransactionalEventListener
+    public void onBlockRuleChanged(BlockRuleChangedEvent event) {
+        lock.lock();
+        try {
+            changes.incrementAndGet();
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void invalidate(Long installationId, LocalDate from, LocalDate to) {
+        lock.lock();
+        try {
+            changes.incrementAndGet();
+            int before = entries.size();
+            entries.keySet().removeIf(key ->
+                    (installationId == null || installationId.equals(key.installationId()))
+                            && !key.date().isBefore(from)
+                            && !key.date().isAfter(to));
+            invalidations.addAndGet(before - entries.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Key(Long installationId, LocalDate date) {}
+}
@@ -0,0 +1,102 @@
+// Contadores de versión por instalación y día para responder a peticiones condicionales (ETag).
+// Avanzan con cada cambio de reservas o bloqueos y permiten contestar 304 sin tocar la BD.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.events.BlockChangedEvent;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.events.SlotHoldChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class AvailabilityVersions {
+
+    // Distingue arranques: tras un reinicio todos los ETag anteriores dejan de coincidir
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Secuencia global monótona; cada día guarda el valor de su último cambio
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<DayKey, Long> installationDays = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDate, Long> globalDays = new ConcurrentHashMap<>();
+    private volatile LocalDate lastPrune = LocalDate.MIN;
+
+    // Los días pasados no se guardan por separado: comparten este suelo para no retroceder
+    private final AtomicLong pastFloor = new AtomicLong();
+
+    // Suelo común a todos los días: lo sube un cambio de reglas recurrentes, que puede afectar a cualquiera
+    private final AtomicLong allFloor = new AtomicLong();
+
+    public String etag(Long installationId, LocalDate date) {
+        long version = Math.max(allFloor.get(), Math.max(
+                installationDays.getOrDefault(new DayKey(installationId, date), 0L),
+                globalDays.getOrDefault(date, 0L)));
+        if (date.isBefore(LocalDate.now())) {
+            version = Math.max(version, pastFloor.get());
+        }
+        return "\"" + bootId + "-" + installationId + "-" + date + "-" + version + "\"";
+    }
+
+    // Se ejecutan después de actualizar el calendario e invalidar la caché de respuestas
+    @Order(ListenerOrder.VERSIONS)
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        bump(event.installationId(), event.start().toLocalDate(), event.end().toLocalDate());
+    }
+
+    @Order(ListenerOrder.VERSIONS)
+    @TransactionalEventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        bump(event.installationId(), event.start().toLocalDate(), event.end().toLocalDate());
+    }
+
+    @Order(ListenerOrder.VERSIONS)
+    @EventListener
+    public void onHoldChanged(SlotHoldChangedEvent event) {
+        bump(event.installationId(), event.start().toLocalDate(), event.end().toLocalDate());
+    }
+
+    @Order(ListenerOrder.VERSIONS)
+    @TransactionalEventListener
+    public void onBlockRuleChanged(BlockRuleChangedEvent event) {
+        allFloor.accumulateAndGet(sequence.incrementAndGet(), Math::max);
+    }
+
+    // Un installationId nulo (bloqueo global) avanza la versión del día para todas las instalaciones
+    void bump(Long installationId, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        pruneBefore(today);
+
+        long version = sequence.incrementAndGet();
+        if (from.isBefore(today)) {
+            pastFloor.accumulateAndGet(version, Math::max);
+        }
+        for (LocalDate date = from.isBefore(today) ? today : from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (installationId == null) {
+                globalDays.put(date, version);
+            } else {
+                installationDays.put(new DayKey(installationId, date), version);
+            }
+        }
+    }
+
+    private void pruneBefore(LocalDate today) {
+        if (today.equals(lastPrune)) {
+            return;
+        }
+        lastPrune = today;
+        pastFloor.accumulateAndGet(sequence.get(), Math::max);
+        installationDays.keySet().removeIf(key -> key.date().isBefore(today));
+        globalDays.keySet().removeIf(date -> date.isBefore(today));
+    }
+
+    private record DayKey(Long installationId, LocalDate date) {}
+}
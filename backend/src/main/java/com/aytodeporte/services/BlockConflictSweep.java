@@ -0,0 +1,81 @@
+// Motor de barrido (sweep-line) que cruza bloqueos y reservas ordenados por inicio.
+// Cada bloqueo entra una vez en los activos y sale en cuanto termina antes de la reserva en curso.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.AffectedReservation;
+import com.aytodeporte.dto.BlockInterval;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+final class BlockConflictSweep {
+
+    // Reserva afectada junto al bloqueo que la invalida
+    record Conflict(AffectedReservation reservation, BlockInterval block) {}
+
+    private BlockConflictSweep() {
+    }
+
+    // Devuelve, en orden de inicio, cada reserva que solapa con algún bloqueo.
+    // Coste O((B + R) log(B + R)) por la ordenación más el recorrido de los bloqueos activos.
+    static List<Conflict> sweep(Collection<BlockInterval> blocks,
+                                Collection<AffectedReservation> reservations) {
+        List<BlockInterval> sortedBlocks = blocks.stream()
+                .sorted(Comparator.comparing(BlockInterval::start))
+                .toList();
+        List<AffectedReservation> sortedReservations = reservations.stream()
+                .sorted(Comparator.comparing(AffectedReservation::start))
+                .toList();
+
+        List<BlockInterval> activeGlobal = new ArrayList<>();
+        Map<Long, List<BlockInterval>> activeByInstallation = new HashMap<>();
+        List<Conflict> conflicts = new ArrayList<>();
+
+        int next = 0;
+        for (AffectedReservation r : sortedReservations) {
+            // Entran los bloqueos que empiezan antes de que acabe la reserva
+            while (next < sortedBlocks.size() && sortedBlocks.get(next).start().isBefore(r.end())) {
+                BlockInterval b = sortedBlocks.get(next++);
+                if (b.isGlobal()) {
+                    activeGlobal.add(b);
+                } else {
+                    activeByInstallation.computeIfAbsent(b.installationId(), k -> new ArrayList<>()).add(b);
+                }
+            }
+
+            // Los bloqueos globales tienen prioridad, igual que en la validación de una reserva
+            BlockInterval hit = firstOverlap(activeGlobal, r);
+            if (hit == null) {
+                hit = firstOverlap(activeByInstallation.get(r.installationId()), r);
+            }
+            if (hit != null) {
+                conflicts.add(new Conflict(r, hit));
+            }
+        }
+        return conflicts;
+    }
+
+    // Las reservas llegan por inicio creciente: un bloqueo que ya terminó no volverá a solapar
+    private static BlockInterval firstOverlap(List<BlockInterval> active, AffectedReservation r) {
+        if (active == null) {
+            return null;
+        }
+
+        BlockInterval found = null;
+        for (Iterator<BlockInterval> it = active.iterator(); it.hasNext(); ) {
+            BlockInterval b = it.next();
+            if (!b.end().isAfter(r.start())) {
+                it.remove();
+            } else if (found == null && b.start().isBefore(r.end())) {
+                found = b;
+            }
+        }
+        return found;
+    }
+}
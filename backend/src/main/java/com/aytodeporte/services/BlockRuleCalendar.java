@@ -0,0 +1,259 @@
+// Expansión perezosa de las reglas de bloqueo recurrentes: solo se calculan los días consultados.
+// Cada día expandido se memoriza hasta que cambia alguna regla; las reglas se cargan una vez en memoria.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.BlockInterval;
+import com.aytodeporte.dto.BlockRuleOccurrence;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.models.BlockRule;
+import com.aytodeporte.models.BlockRuleKind;
+import com.aytodeporte.models.InstallationType;
+import com.aytodeporte.repositories.BlockRuleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class BlockRuleCalendar {
+
+    // Límite de días memorizados: al superarlo se vacía y se vuelve a llenar con lo que se consulte
+    private static final int MAX_MEMO_DAYS = 1000;
+
+    private final BlockRuleRepository blockRuleRepository;
+
+    // Null hasta la primera carga o tras un cambio de reglas
+    private final AtomicReference<List<Rule>> current = new AtomicReference<>();
+    private final ConcurrentHashMap<LocalDate, DayRules> days = new ConcurrentHashMap<>();
+
+    // Se incrementa con cada cambio para no memorizar expansiones calculadas con reglas antiguas
+    private final AtomicLong changes = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Ocurrencias de reglas globales que se solapan con [start, end)
+    public List<BlockInterval> findGlobal(LocalDateTime start, LocalDateTime end) {
+        if (rules().isEmpty()) {
+            return List.of();
+        }
+
+        List<BlockInterval> found = new ArrayList<>();
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            addOverlapping(found, day(date).global(), null, start, end);
+        }
+        return found;
+    }
+
+    // Ocurrencias de reglas de la instalación o de su tipo que se solapan con [start, end)
+    public List<BlockInterval> findByInstallation(Long installationId,
+                                                  InstallationType type,
+                                                  LocalDateTime start,
+                                                  LocalDateTime end) {
+        if (rules().isEmpty()) {
+            return List.of();
+        }
+
+        List<BlockInterval> found = new ArrayList<>();
+        for (LocalDate date = start.toLocalDate(); !date.isAfter(end.toLocalDate()); date = date.plusDays(1)) {
+            DayRules day = day(date);
+            addOverlapping(found, day.byInstallation().getOrDefault(installationId, List.of()),
+                    installationId, start, end);
+            if (type != null) {
+                addOverlapping(found, day.byType().getOrDefault(type, List.of()), installationId, start, end);
+            }
+        }
+        return found;
+    }
+
+    // Ocurrencias de todas las reglas en un rango de días, con su ámbito (vista de administración)
+    public List<BlockRuleOccurrence> occurrences(LocalDate from, LocalDate to) {
+        List<BlockRuleOccurrence> result = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            for (Rule rule : rules()) {
+                if (rule.appliesOn(date)) {
+                    result.add(new BlockRuleOccurrence(
+                            rule.id(),
+                            rule.installationId(),
+                            rule.type() != null ? rule.type().getDbValue() : null,
+                            rule.reason(),
+                            date.atTime(rule.startTime()),
+                            date.atTime(rule.endTime())
+                    ));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Las reglas son pocas: se descarta todo y se recarga en la siguiente consulta
+    @Order(ListenerOrder.SNAPSHOTS)
+    @TransactionalEventListener
+    public void onBlockRuleChanged(BlockRuleChangedEvent event) {
+        changes.incrementAndGet();
+        current.set(null);
+        days.clear();
+    }
+
+    private static void addOverlapping(List<BlockInterval> found,
+                                       List<BlockInterval> candidates,
+                                       Long installationId,
+                                       LocalDateTime start,
+                                       LocalDateTime end) {
+        for (BlockInterval b : candidates) {
+            if (b.start().isBefore(end) && b.end().isAfter(start)) {
+                found.add(installationId == null || installationId.equals(b.installationId())
+                        ? b
+                        : new BlockInterval(null, installationId, b.reason(), b.start(), b.end(), b.ruleId()));
+            }
+        }
+    }
+
+    private DayRules day(LocalDate date) {
+        DayRules cached = days.get(date);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = changes.get();
+        DayRules computed = DayRules.expand(rules(), date);
+        if (changes.get() == version) {
+            if (days.size() >= MAX_MEMO_DAYS) {
+                days.clear();
+            }
+            DayRules previous = days.putIfAbsent(date, computed);
+            return previous != null ? previous : computed;
+        }
+        return computed;
+    }
+
+    private List<Rule> rules() {
+        List<Rule> rules = current.get();
+        return rules != null ? rules : load();
+    }
+
+    private List<Rule> load() {
+        loadLock.lock();
+        try {
+            while (true) {
+                List<Rule> rules = current.get();
+                if (rules != null) {
+                    return rules;
+                }
+
+                long version = changes.get();
+                List<Rule> loaded = blockRuleRepository.findAllWithInstallation().stream()
+                        .map(Rule::of)
+                        .toList();
+                if (changes.get() == version && current.compareAndSet(null, loaded)) {
+                    return loaded;
+                }
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // ===================== ESTRUCTURAS INMUTABLES =====================
+
+    // Ocurrencias de un día agrupadas por ámbito
+    private record DayRules(List<BlockInterval> global,
+                            Map<Long, List<BlockInterval>> byInstallation,
+                            Map<InstallationType, List<BlockInterval>> byType) {
+
+        static DayRules expand(List<Rule> rules, LocalDate date) {
+            List<BlockInterval> global = new ArrayList<>();
+            Map<Long, List<BlockInterval>> byInstallation = new HashMap<>();
+            Map<InstallationType, List<BlockInterval>> byType = new HashMap<>();
+
+            for (Rule rule : rules) {
+                if (!rule.appliesOn(date)) {
+                    continue;
+                }
+                BlockInterval occurrence = new BlockInterval(null, rule.installationId(), rule.reason(),
+                        date.atTime(rule.startTime()), date.atTime(rule.endTime()), rule.id());
+
+                if (rule.installationId() != null) {
+                    byInstallation.computeIfAbsent(rule.installationId(), id -> new ArrayList<>()).add(occurrence);
+                } else if (rule.type() != null) {
+                    byType.computeIfAbsent(rule.type(), t -> new ArrayList<>()).add(occurrence);
+                } else {
+                    global.add(occurrence);
+                }
+            }
+            return new DayRules(List.copyOf(global), Map.copyOf(byInstallation), Map.copyOf(byType));
+        }
+    }
+
+    private record Rule(Long id,
+                        BlockRuleKind kind,
+                        Long installationId,
+                        InstallationType type,
+                        DayOfWeek dayOfWeek,
+                        Integer dayOfMonth,
+                        Set<LocalDate> dates,
+                        LocalTime startTime,
+                        LocalTime endTime,
+                        LocalDate validFrom,
+                        LocalDate validUntil,
+                        String reason) {
+
+        static Rule of(BlockRule r) {
+            return new Rule(
+                    r.getId(),
+                    r.getKind(),
+                    r.getInstallation() != null ? r.getInstallation().getId() : null,
+                    r.getInstallationType(),
+                    r.getDayOfWeek() != null ? DayOfWeek.of(r.getDayOfWeek()) : null,
+                    r.getDayOfMonth(),
+                    parseDates(r.getDates()),
+                    r.getStartTime(),
+                    r.getEndTime(),
+                    r.getValidFrom(),
+                    r.getValidUntil(),
+                    r.getReason()
+            );
+        }
+
+        boolean appliesOn(LocalDate date) {
+            if ((validFrom != null && date.isBefore(validFrom))
+                    || (validUntil != null && date.isAfter(validUntil))) {
+                return false;
+            }
+            return switch (kind) {
+                case WEEKLY -> date.getDayOfWeek() == dayOfWeek;
+                case MONTHLY -> dayOfMonth != null && date.getDayOfMonth() == dayOfMonth;
+                case DATES -> dates.contains(date);
+            };
+        }
+    }
+
+    // Fechas ISO separadas por comas, tal como se guardan en bloqueos_reglas.fechas
+    static Set<LocalDate> parseDates(String value) {
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(LocalDate::parse)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,232 @@
+// Servicio de negocio para las reglas de bloqueo recurrentes: creación, listado, eliminación y vista previa.
+// Cada regla se guarda una vez y BlockRuleCalendar la expande solo para los días que se consultan.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.BlockRuleOccurrence;
+import com.aytodeporte.dto.BlockRuleRequest;
+import com.aytodeporte.dto.BlockRuleResponse;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.models.BlockRule;
+import com.aytodeporte.models.BlockRuleKind;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.InstallationType;
+import com.aytodeporte.models.User;
+import com.aytodeporte.repositories.BlockRuleRepository;
+import com.aytodeporte.repositories.InstallationRepository;
+import com.aytodeporte.repositories.UserRepository;
+import com.aytodeporte.utils.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BlockRuleService {
+
+    // Rango máximo de la vista previa de ocurrencias
+    private static final int MAX_PREVIEW_DAYS = 366;
+
+    private final BlockRuleRepository blockRuleRepository;
+    private final InstallationRepository installationRepository;
+    private final UserRepository userRepository;
+    private final BlockRuleCalendar blockRuleCalendar;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public BlockRuleResponse createRule(BlockRuleRequest request) {
+        BlockRuleKind kind = parseKind(request.getKind());
+
+        // Ámbito: instalación concreta, tipo de instalación o global si no viene ninguno
+        if (request.getInstallationId() != null && request.getInstallationType() != null) {
+            throw new BusinessException("Indica una instalación o un tipo de instalación, no ambos");
+        }
+        Installation installation = null;
+        if (request.getInstallationId() != null) {
+            installation = installationRepository.findById(request.getInstallationId())
+                    .orElseThrow(() -> new BusinessException("Instalación no encontrada"));
+        }
+        InstallationType installationType = request.getInstallationType() != null
+                ? parseType(request.getInstallationType())
+                : null;
+
+        User creator = userRepository.findById(request.getCreatedByUserId())
+                .orElseThrow(() -> new BusinessException("Usuario creador no encontrado"));
+
+        if (request.getReason() == null || request.getReason().isBlank()) {
+            throw new BusinessException("El motivo del bloqueo es obligatorio");
+        }
+
+        LocalTime startTime = parseTime(request.getStartTime());
+        LocalTime endTime = parseTime(request.getEndTime());
+        if (!endTime.isAfter(startTime)) {
+            throw new BusinessException("La hora fin debe ser posterior a la hora de inicio");
+        }
+
+        LocalDate validFrom = request.getValidFrom() != null ? parseDate(request.getValidFrom()) : null;
+        LocalDate validUntil = request.getValidUntil() != null ? parseDate(request.getValidUntil()) : null;
+        if (validFrom != null && validUntil != null && validUntil.isBefore(validFrom)) {
+            throw new BusinessException("La fecha fin no puede ser anterior al inicio");
+        }
+
+        BlockRule.BlockRuleBuilder rule = BlockRule.builder()
+                .kind(kind)
+                .installation(installation)
+                .installationType(installationType)
+                .startTime(startTime)
+                .endTime(endTime)
+                .validFrom(validFrom)
+                .validUntil(validUntil)
+                .reason(request.getReason())
+                .createdBy(creator)
+                .createdAt(LocalDateTime.now());
+
+        // Cada tipo de regla solo guarda su propio patrón
+        switch (kind) {
+            case WEEKLY -> rule.dayOfWeek(parseDayOfWeek(request.getDayOfWeek()).getValue());
+            case MONTHLY -> rule.dayOfMonth(validateDayOfMonth(request.getDayOfMonth()));
+            case DATES -> rule.dates(joinDates(request.getDates()));
+        }
+
+        BlockRule saved = blockRuleRepository.save(rule.build());
+        eventPublisher.publishEvent(new BlockRuleChangedEvent(saved.getId(), false));
+        return toResponse(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BlockRuleResponse> getAllRules() {
+        return blockRuleRepository.findAllWithInstallation()
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    @Transactional
+    public void deleteRule(Long id) {
+        BlockRule rule = blockRuleRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Regla de bloqueo no encontrada"));
+
+        blockRuleRepository.delete(rule);
+        eventPublisher.publishEvent(new BlockRuleChangedEvent(id, true));
+    }
+
+    // Vista previa de las ocurrencias de todas las reglas en un rango de días
+    public List<BlockRuleOccurrence> getOccurrences(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BusinessException("La fecha fin no puede ser anterior al inicio");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_PREVIEW_DAYS) {
+            throw new BusinessException("El rango de fechas no puede superar " + MAX_PREVIEW_DAYS + " días");
+        }
+        return blockRuleCalendar.occurrences(from, to);
+    }
+
+    // ===================== VALIDACIONES PRIVADAS =====================
+
+    private BlockRuleKind parseKind(String value) {
+        try {
+            BlockRuleKind kind = BlockRuleKind.fromDbValue(value);
+            if (kind == null) {
+                throw new BusinessException("El tipo de regla es obligatorio (semanal, mensual o fechas)");
+            }
+            return kind;
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Tipo de regla inválido: " + value);
+        }
+    }
+
+    private InstallationType parseType(String value) {
+        try {
+            return InstallationType.fromDbValue(value);
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Tipo de instalación inválido: " + value);
+        }
+    }
+
+    private DayOfWeek parseDayOfWeek(String value) {
+        if (value == null || value.isBlank()) {
+            throw new BusinessException("Una regla semanal necesita el día de la semana");
+        }
+        try {
+            return DayOfWeek.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Día de la semana no válido: " + value);
+        }
+    }
+
+    private int validateDayOfMonth(Integer dayOfMonth) {
+        if (dayOfMonth == null || dayOfMonth < 1 || dayOfMonth > 31) {
+            throw new BusinessException("Una regla mensual necesita un día del mes entre 1 y 31");
+        }
+        return dayOfMonth;
+    }
+
+    // Se guardan ordenadas y sin duplicados
+    private String joinDates(List<String> dates) {
+        if (dates == null || dates.isEmpty()) {
+            throw new BusinessException("Una regla por fechas necesita al menos una fecha");
+        }
+        TreeSet<LocalDate> parsed = new TreeSet<>();
+        for (String date : dates) {
+            parsed.add(parseDate(date));
+        }
+        return parsed.stream()
+                .map(LocalDate::toString)
+                .collect(Collectors.joining(","));
+    }
+
+    private LocalTime parseTime(String value) {
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new BusinessException("Formato de hora no válido: " + value);
+        }
+    }
+
+    private LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new BusinessException("Formato de fecha no válido: " + value);
+        }
+    }
+
+    // Conversión de entidad BlockRule a DTO BlockRuleResponse
+    private BlockRuleResponse toResponse(BlockRule r) {
+        Long installationId = null;
+        String installationName = null;
+        if (r.getInstallation() != null) {
+            installationId = r.getInstallation().getId();
+            installationName = r.getInstallation().getName();
+        }
+
+        return new BlockRuleResponse(
+                r.getId(),
+                r.getKind().getDbValue(),
+                installationId,
+                installationName,
+                r.getInstallationType() != null ? r.getInstallationType().getDbValue() : null,
+                r.getDayOfWeek() != null ? DayOfWeek.of(r.getDayOfWeek()).name() : null,
+                r.getDayOfMonth(),
+                BlockRuleCalendar.parseDates(r.getDates()).stream().sorted().map(LocalDate::toString).toList(),
+                r.getStartTime().toString(),
+                r.getEndTime().toString(),
+                r.getValidFrom() != null ? r.getValidFrom().toString() : null,
+                r.getValidUntil() != null ? r.getValidUntil().toString() : null,
+                r.getReason(),
+                r.getCreatedBy().getId(),
+                r.getCreatedAt().toString()
+        );
+    }
+}
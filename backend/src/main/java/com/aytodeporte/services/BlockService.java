@@ -1,23 +1,42 @@
 // Servicio de negocio para gestionar bloqueos: creación, listado, filtrado y eliminación.
-// Aplica validaciones de solapamiento, rangos de fechas y existencia de instalación/usuario.
+// Aplica validaciones de solapamiento y fechas, y analiza o cancela las reservas afectadas por un bloqueo.
 
 package com.aytodeporte.services;
 
+import com.aytodeporte.dto.AffectedReservation;
+import com.aytodeporte.dto.BlockImpactItem;
+import com.aytodeporte.dto.BlockImpactResponse;
+import com.aytodeporte.dto.BlockInterval;
 import com.aytodeporte.dto.BlockRequest;
 import com.aytodeporte.dto.BlockResponse;
+import com.aytodeporte.dto.PageResponse;
+import com.aytodeporte.events.BlockChangedEvent;
+import com.aytodeporte.events.ReservationChangedEvent;
 import com.aytodeporte.models.Block;
 import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.ReservationStatus;
 import com.aytodeporte.models.User;
 import com.aytodeporte.repositories.BlockRepository;
 import com.aytodeporte.repositories.InstallationRepository;
+import com.aytodeporte.repositories.ReservationRepository;
+import com.aytodeporte.repositories.SlotClaimRepository;
 import com.aytodeporte.repositories.UserRepository;
 import com.aytodeporte.utils.BusinessException;
+import com.aytodeporte.utils.PageCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.aytodeporte.services.ReservationService.CANCEL_HOURS_BEFORE;
+import static com.aytodeporte.services.ReservationService.earliestStart;
 
 @Service
 @RequiredArgsConstructor
@@ -26,9 +45,74 @@ public class BlockService {
     private final BlockRepository blockRepository;
     private final InstallationRepository installationRepository;
     private final UserRepository userRepository;
+    private final ReservationRepository reservationRepository;
+    private final SlotClaimRepository slotClaimRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public BlockResponse createBlock(BlockRequest request) {
+        Block saved = blockRepository.save(buildBlock(request));
+        eventPublisher.publishEvent(BlockChangedEvent.created(saved));
+        return toResponse(saved);
+    }
+
+    // Simulación: lista las reservas confirmadas que quedarían dentro del bloqueo, sin crear nada
+    @Transactional(readOnly = true)
+    public BlockImpactResponse analyzeBlockImpact(BlockRequest request) {
+        Block block = buildBlock(request);
+        return toImpactResponse(null, false, impactOf(block), Set.of());
+    }
+
+    // Crea el bloqueo y cancela en un único UPDATE las reservas afectadas que aún admiten cancelación
+    @Transactional
+    public BlockImpactResponse createBlockCancellingConflicts(BlockRequest request) {
+        Block saved = blockRepository.save(buildBlock(request));
+        List<BlockConflictSweep.Conflict> conflicts = impactOf(saved);
+
+        LocalDateTime limit = LocalDateTime.now().plusHours(CANCEL_HOURS_BEFORE);
+        List<AffectedReservation> cancellable = conflicts.stream()
+                .map(BlockConflictSweep.Conflict::reservation)
+                .filter(r -> r.start().isAfter(limit))
+                .toList();
+        Set<Long> ids = cancellable.stream()
+                .map(AffectedReservation::id)
+                .collect(Collectors.toSet());
+
+        if (!ids.isEmpty()) {
+            reservationRepository.updateStatus(ids, ReservationStatus.CONFIRMED, ReservationStatus.CANCELLED);
+            slotClaimRepository.releaseAll(ids);
+            cancellable.forEach(r -> eventPublisher.publishEvent(new ReservationChangedEvent(
+                    r.id(), r.installationId(), r.userId(), r.start(), r.end(), ReservationStatus.CANCELLED,
+                    r.amount())));
+        }
+
+        eventPublisher.publishEvent(BlockChangedEvent.created(saved));
+        return toImpactResponse(toResponse(saved), true, conflicts, ids);
+    }
+
+    // Reservas confirmadas pendientes que ya están dentro de algún bloqueo existente
+    @Transactional(readOnly = true)
+    public List<BlockImpactItem> findBlockConflicts() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BlockInterval> blocks = blockRepository.findIntervalsEndingAfter(now);
+        if (blocks.isEmpty()) {
+            return List.of();
+        }
+
+        // Una sola consulta de reservas sobre el rango que cubren todos los bloqueos
+        LocalDateTime from = blocks.stream().map(BlockInterval::start).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDateTime to = blocks.stream().map(BlockInterval::end).max(Comparator.naturalOrder()).orElseThrow();
+        if (from.isBefore(now)) {
+            from = now;
+        }
+
+        List<AffectedReservation> reservations = reservationRepository.findAffected(
+                ReservationStatus.CONFIRMED, earliestStart(from), from, to);
+        return toImpactItems(BlockConflictSweep.sweep(blocks, reservations), Set.of());
+    }
+
+    // Valida la petición y construye el bloqueo sin guardarlo
+    private Block buildBlock(BlockRequest request) {
 
         // Si viene instalación, el bloqueo es específico; si no, será global
         Installation installation = null;
@@ -55,7 +139,7 @@ public class BlockService {
             }
         }
 
-        Block block = Block.builder()
+        return Block.builder()
                 .installation(installation)
                 .reason(request.getReason())
                 .start(start)
@@ -63,68 +147,114 @@ public class BlockService {
                 .createdBy(creator)
                 .createdAt(LocalDateTime.now())
                 .build();
-
-        Block saved = blockRepository.save(block);
-        return toResponse(saved);
     }
 
     @Transactional(readOnly = true)
     public List<BlockResponse> getAllBlocks() {
-        return blockRepository.findAllByOrderByStartAsc()
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return blockRepository.findAllResponses();
+    }
+
+    // Página de bloqueos ordenados por (inicio, id)
+    @Transactional(readOnly = true)
+    public PageResponse<BlockResponse> getBlockPage(String cursor, int size) {
+        PageCursor after = PageCursor.parse(cursor);
+        List<BlockResponse> rows = blockRepository.findResponsePage(after.start(), after.id(), Limit.of(size + 1));
+        return PageResponse.of(rows, size, b -> PageCursor.encode(LocalDateTime.parse(b.getStart()), b.getId()));
     }
 
     @Transactional(readOnly = true)
     public List<BlockResponse> getBlocksByInstallation(Long installationId) {
-        Installation installation = installationRepository.findById(installationId)
-                .orElseThrow(() -> new BusinessException("Instalación no encontrada"));
+        List<BlockResponse> blocks = blockRepository.findResponsesByInstallation(installationId);
 
-        return blockRepository.findByInstallationOrderByStartAsc(installation)
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        // Solo una lista vacía obliga a distinguir "sin bloqueos" de "instalación inexistente"
+        if (blocks.isEmpty() && !installationRepository.existsById(installationId)) {
+            throw new BusinessException("Instalación no encontrada");
+        }
+        return blocks;
     }
 
     @Transactional(readOnly = true)
     public List<BlockResponse> getGlobalBlocks() {
-        return blockRepository.findByInstallationIsNull()
-                .stream()
-                .map(this::toResponse)
-                .toList();
+        return blockRepository.findGlobalResponses();
     }
 
     @Transactional
     public void deleteBlock(Long id) {
-        if (!blockRepository.existsById(id)) {
-            throw new BusinessException("Bloqueo no encontrado");
+        Block block = blockRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Bloqueo no encontrado"));
+
+        blockRepository.delete(block);
+        eventPublisher.publishEvent(BlockChangedEvent.deleted(block));
+    }
+
+    // Reservas confirmadas no terminadas que solapan con el bloqueo, vía el motor de barrido
+    private List<BlockConflictSweep.Conflict> impactOf(Block block) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = block.getStart().isAfter(now) ? block.getStart() : now;
+        if (!block.getEnd().isAfter(from)) {
+            return List.of();
         }
-        blockRepository.deleteById(id);
+
+        List<AffectedReservation> reservations = block.getInstallation() == null
+                ? reservationRepository.findAffected(
+                        ReservationStatus.CONFIRMED, earliestStart(from), from, block.getEnd())
+                : reservationRepository.findAffectedByInstallation(block.getInstallation(),
+                        ReservationStatus.CONFIRMED, earliestStart(from), from, block.getEnd());
+
+        return BlockConflictSweep.sweep(List.of(BlockInterval.of(block)), reservations);
+    }
+
+    private BlockImpactResponse toImpactResponse(BlockResponse block,
+                                                 boolean committed,
+                                                 List<BlockConflictSweep.Conflict> conflicts,
+                                                 Set<Long> cancelledIds) {
+        return new BlockImpactResponse(
+                block,
+                committed,
+                conflicts.size(),
+                cancelledIds.size(),
+                toImpactItems(conflicts, cancelledIds)
+        );
+    }
+
+    private List<BlockImpactItem> toImpactItems(List<BlockConflictSweep.Conflict> conflicts,
+                                                Set<Long> cancelledIds) {
+        LocalDateTime limit = LocalDateTime.now().plusHours(CANCEL_HOURS_BEFORE);
+        return conflicts.stream()
+                .map(c -> {
+                    AffectedReservation r = c.reservation();
+                    return new BlockImpactItem(
+                            r.id(),
+                            r.userId(),
+                            r.userEmail(),
+                            r.installationId(),
+                            r.installationName(),
+                            r.start(),
+                            r.end(),
+                            r.code(),
+                            c.block().id(),
+                            c.block().reason(),
+                            r.start().isAfter(limit),
+                            cancelledIds.contains(r.id())
+                    );
+                })
+                .toList();
     }
 
     // Conversión de entidad Block a DTO BlockResponse
     private BlockResponse toResponse(Block b) {
-        Long installationId = null;
-        String installationName;
-
-        if (b.getInstallation() != null) {
-            installationId = b.getInstallation().getId();
-            installationName = b.getInstallation().getName();
-        } else {
-            installationName = "TODAS LAS INSTALACIONES";
-        }
+        Installation installation = b.getInstallation();
 
         return new BlockResponse(
                 b.getId(),
-                installationId,
-                installationName,
+                installation != null ? installation.getId() : null,
+                installation != null ? installation.getName() : null,
                 b.getReason(),
-                b.getStart().toString(),
-                b.getEnd().toString(),
+                b.getStart(),
+                b.getEnd(),
                 b.getCreatedBy().getId(),
                 b.getCreatedBy().getEmail(),
-                b.getCreatedAt().toString()
+                b.getCreatedAt()
         );
     }
 }
@@ -0,0 +1,216 @@
+// Instantánea inmutable de todos los bloqueos, indexada por instalación y ordenada por inicio.
+// Las lecturas son búsquedas binarias sin consultas y añaden las ocurrencias de las reglas recurrentes.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.BlockInterval;
+import com.aytodeporte.events.BlockChangedEvent;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.repositories.BlockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlockSnapshot {
+
+    private final BlockRepository blockRepository;
+    private final BlockRuleCalendar blockRuleCalendar;
+
+    // Null hasta la primera carga; después siempre hay una instantánea completa
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    // Se incrementa con cada cambio para descartar cargas que hayan competido con un evento
+    private final AtomicLong changes = new AtomicLong();
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Bloqueos globales (filas y reglas) que se solapan con [start, end), en orden de inicio
+    public List<BlockInterval> findGlobal(LocalDateTime start, LocalDateTime end) {
+        return merge(snapshot().global().overlapping(start, end),
+                blockRuleCalendar.findGlobal(start, end));
+    }
+
+    // Bloqueos propios de una instalación (filas, reglas de la instalación y de su tipo), en orden de inicio
+    public List<BlockInterval> findByInstallation(Installation installation, LocalDateTime start, LocalDateTime end) {
+        SortedBlocks blocks = snapshot().byInstallation().get(installation.getId());
+        return merge(blocks != null ? blocks.overlapping(start, end) : List.of(),
+                blockRuleCalendar.findByInstallation(installation.getId(), installation.getType(), start, end));
+    }
+
+    public int size() {
+        return snapshot().size();
+    }
+
+    // Carga inicial al arrancar para que la primera petición no pague la consulta
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        log.info("Instantánea de bloqueos cargada con {} bloqueos", snapshot().size());
+    }
+
+    // Copia con el bloqueo añadido o quitado; se aplica antes que los motores que la leen
+    @Order(ListenerOrder.SNAPSHOTS)
+    @TransactionalEventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        changes.incrementAndGet();
+
+        BlockInterval block = new BlockInterval(event.blockId(), event.installationId(),
+                event.reason(), event.start(), event.end());
+        current.updateAndGet(s -> s == null ? null : s.with(block, event.deleted()));
+    }
+
+    private static List<BlockInterval> merge(List<BlockInterval> rows, List<BlockInterval> rules) {
+        if (rules.isEmpty()) {
+            return rows;
+        }
+        List<BlockInterval> merged = new ArrayList<>(rows);
+        merged.addAll(rules);
+        merged.sort(Comparator.comparing(BlockInterval::start));
+        return merged;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot s = current.get();
+        return s != null ? s : load();
+    }
+
+    private Snapshot load() {
+        loadLock.lock();
+        try {
+            while (true) {
+                Snapshot s = current.get();
+                if (s != null) {
+                    return s;
+                }
+
+                // Si llega un cambio durante la consulta se repite: los eventos solo se aplican
+                // sobre una instantánea ya publicada y ese cambio podría no estar en lo leído
+                long version = changes.get();
+                Snapshot loaded = Snapshot.of(blockRepository.findAllIntervals());
+                if (changes.get() == version && current.compareAndSet(null, loaded)) {
+                    return loaded;
+                }
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // ===================== ESTRUCTURAS INMUTABLES =====================
+
+    private record Snapshot(SortedBlocks global, Map<Long, SortedBlocks> byInstallation, int size) {
+
+        static Snapshot of(List<BlockInterval> blocks) {
+            Map<Long, List<BlockInterval>> grouped = blocks.stream()
+                    .filter(b -> !b.isGlobal())
+                    .collect(Collectors.groupingBy(BlockInterval::installationId));
+
+            Map<Long, SortedBlocks> byInstallation = new HashMap<>();
+            grouped.forEach((id, list) -> byInstallation.put(id, SortedBlocks.of(list)));
+
+            List<BlockInterval> global = blocks.stream().filter(BlockInterval::isGlobal).toList();
+            return new Snapshot(SortedBlocks.of(global), Map.copyOf(byInstallation), blocks.size());
+        }
+
+        // Solo se copia la lista afectada; el resto de instalaciones se comparte con la anterior.
+        // Reemplaza por ID, así aplicar dos veces el mismo evento no duplica el bloqueo.
+        Snapshot with(BlockInterval block, boolean deleted) {
+            SortedBlocks previous = block.isGlobal() ? global : byInstallation.get(block.installationId());
+            List<BlockInterval> list = new ArrayList<>(previous != null ? previous.asList() : List.of());
+            boolean existed = list.removeIf(b -> b.id().equals(block.id()));
+            if (!deleted) {
+                list.add(block);
+            }
+            SortedBlocks updated = SortedBlocks.of(list);
+            int newSize = size - (existed ? 1 : 0) + (deleted ? 0 : 1);
+
+            if (block.isGlobal()) {
+                return new Snapshot(updated, byInstallation, newSize);
+            }
+            Map<Long, SortedBlocks> copy = new HashMap<>(byInstallation);
+            if (updated.isEmpty()) {
+                copy.remove(block.installationId());
+            } else {
+                copy.put(block.installationId(), updated);
+            }
+            return new Snapshot(global, Map.copyOf(copy), newSize);
+        }
+    }
+
+    // Bloqueos ordenados por inicio con el máximo fin acumulado: maxEnd[i] es el mayor fin de 0..i,
+    // lo que permite cortar el recorrido hacia atrás en cuanto ningún bloqueo anterior llega a start
+    private static final class SortedBlocks {
+
+        private final BlockInterval[] blocks;
+        private final LocalDateTime[] maxEnd;
+
+        private SortedBlocks(BlockInterval[] blocks) {
+            this.blocks = blocks;
+            this.maxEnd = new LocalDateTime[blocks.length];
+            for (int i = 0; i < blocks.length; i++) {
+                LocalDateTime end = blocks[i].end();
+                maxEnd[i] = i > 0 && maxEnd[i - 1].isAfter(end) ? maxEnd[i - 1] : end;
+            }
+        }
+
+        static SortedBlocks of(List<BlockInterval> list) {
+            BlockInterval[] sorted = list.toArray(new BlockInterval[0]);
+            Arrays.sort(sorted, Comparator.comparing(BlockInterval::start));
+            return new SortedBlocks(sorted);
+        }
+
+        boolean isEmpty() {
+            return blocks.length == 0;
+        }
+
+        List<BlockInterval> asList() {
+            return Arrays.asList(blocks);
+        }
+
+        List<BlockInterval> overlapping(LocalDateTime start, LocalDateTime end) {
+            // Candidatos: los que empiezan antes de end; se recorren hacia atrás mientras puedan llegar a start
+            List<BlockInterval> found = new ArrayList<>();
+            for (int i = startingBefore(end) - 1; i >= 0 && maxEnd[i].isAfter(start); i--) {
+                if (blocks[i].end().isAfter(start)) {
+                    found.add(blocks[i]);
+                }
+            }
+            Collections.reverse(found);
+            return found;
+        }
+
+        // Número de bloqueos con inicio < instant (búsqueda binaria)
+        private int startingBefore(LocalDateTime instant) {
+            int lo = 0;
+            int hi = blocks.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (blocks[mid].start().isBefore(instant)) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+// Índice en memoria de reservas confirmadas por instalación, ordenadas por hora de inicio.
+// Permite comprobar solapes en O(log n) sin consultar la BD y se sincroniza tras cada commit.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.ReservationInterval;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.repositories.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InstallationOverlapIndex {
+
+    private final ReservationRepository reservationRepository;
+
+    // Por instalación: inicio de la reserva -> intervalo. Las reservas confirmadas de una
+    // instalación no se solapan, así que ordenar por inicio también las ordena por fin.
+    private volatile Map<Long, NavigableMap<LocalDateTime, ReservationInterval>> byInstallation =
+            new ConcurrentHashMap<>();
+
+    // Hasta que no se carga desde la BD el servicio debe seguir consultando la tabla
+    private volatile boolean ready = false;
+
+    // Eventos llegados mientras se lee la BD; se reaplican sobre el índice nuevo antes de publicarlo.
+    // Null fuera de la carga. Protegido por changeLock junto con la sustitución del índice
+    private List<ReservationChangedEvent> pending;
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Devuelve la reserva que se solapa con [start, end) en la instalación, si existe
+    public Optional<ReservationInterval> findOverlap(Long installationId,
+                                                     LocalDateTime start,
+                                                     LocalDateTime end) {
+        NavigableMap<LocalDateTime, ReservationInterval> reservations = byInstallation.get(installationId);
+        if (reservations == null) {
+            return Optional.empty();
+        }
+
+        // La última reserva que empieza antes del fin pedido es la única candidata a solapar
+        Map.Entry<LocalDateTime, ReservationInterval> candidate = reservations.lowerEntry(end);
+        if (candidate != null && candidate.getValue().end().isAfter(start)) {
+            return Optional.of(candidate.getValue());
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return byInstallation.values().stream().mapToInt(Map::size).sum();
+    }
+
+    // Carga inicial desde la tabla reservas y comprobación de consistencia
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        changeLock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            changeLock.unlock();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, NavigableMap<LocalDateTime, ReservationInterval>> fresh = new ConcurrentHashMap<>();
+        int conflicts = 0;
+
+        try {
+            for (ReservationInterval r :
+                    reservationRepository.findIntervalsEndingAfter(ReservationStatus.CONFIRMED, now)) {
+                NavigableMap<LocalDateTime, ReservationInterval> reservations =
+                        fresh.computeIfAbsent(r.installationId(), id -> new ConcurrentSkipListMap<>());
+
+                // Las filas llegan ordenadas por inicio: basta comparar con la anterior
+                Map.Entry<LocalDateTime, ReservationInterval> previous = reservations.lastEntry();
+                if (previous != null && previous.getValue().end().isAfter(r.start())) {
+                    conflicts++;
+                    log.warn("Reservas solapadas en BD para la instalación {}: {} y {}",
+                            r.installationId(), previous.getValue().id(), r.id());
+                    if (!r.end().isAfter(previous.getValue().end())) {
+                        continue;
+                    }
+                }
+                reservations.put(r.start(), r);
+            }
+        } catch (RuntimeException ex) {
+            // Sin carga el servicio sigue consultando la tabla: no hay que seguir acumulando eventos
+            changeLock.lock();
+            try {
+                pending = null;
+            } finally {
+                changeLock.unlock();
+            }
+            throw ex;
+        }
+
+        // Los cambios confirmados durante la consulta pueden no estar en lo leído; reaplicarlos en
+        // orden es inocuo para los que sí estaban (añadir o quitar la misma reserva otra vez)
+        int replayed;
+        changeLock.lock();
+        try {
+            replayed = pending.size();
+            pending.forEach(event -> apply(fresh, event));
+            pending = null;
+            byInstallation = fresh;
+            ready = true;
+        } finally {
+            changeLock.unlock();
+        }
+        if (replayed > 0) {
+            log.info("Índice de solapes: {} cambios llegados durante la carga reaplicados", replayed);
+        }
+
+        long expected = reservationRepository.countByStatusAndEndAfter(ReservationStatus.CONFIRMED, now);
+        int indexed = size();
+        if (conflicts > 0 || indexed != expected) {
+            log.warn("Índice de solapes inconsistente con la tabla reservas: {} indexadas, {} en BD, {} conflictos",
+                    indexed, expected, conflicts);
+        } else {
+            log.info("Índice de solapes cargado con {} reservas confirmadas", indexed);
+        }
+    }
+
+    // Sincroniza el índice solo cuando la transacción que creó o canceló la reserva ha hecho commit
+    @Order(ListenerOrder.ENGINES)
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        changeLock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(byInstallation, event);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private static void apply(Map<Long, NavigableMap<LocalDateTime, ReservationInterval>> index,
+                              ReservationChangedEvent event) {
+        if (event.status() == ReservationStatus.CONFIRMED) {
+            add(index, new ReservationInterval(event.reservationId(), event.installationId(),
+                    event.userId(), event.start(), event.end()));
+        } else {
+            remove(index, event.installationId(), event.reservationId(), event.start());
+        }
+    }
+
+    private static void add(Map<Long, NavigableMap<LocalDateTime, ReservationInterval>> index,
+                            ReservationInterval r) {
+        NavigableMap<LocalDateTime, ReservationInterval> reservations =
+                index.computeIfAbsent(r.installationId(), id -> new ConcurrentSkipListMap<>());
+        reservations.put(r.start(), r);
+
+        // Poda de reservas ya terminadas para que el índice no crezca con el histórico
+        LocalDateTime now = LocalDateTime.now();
+        reservations.headMap(now.minusDays(1)).values().removeIf(old -> old.end().isBefore(now));
+    }
+
+    private static void remove(Map<Long, NavigableMap<LocalDateTime, ReservationInterval>> index,
+                               Long installationId, Long reservationId, LocalDateTime start) {
+        NavigableMap<LocalDateTime, ReservationInterval> reservations = index.get(installationId);
+        if (reservations == null) {
+            return;
+        }
+        ReservationInterval current = reservations.get(start);
+        if (current != null && current.id().equals(reservationId)) {
+            reservations.remove(start, current);
+        }
+    }
+}
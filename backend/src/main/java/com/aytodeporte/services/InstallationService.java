@@ -90,6 +90,14 @@ public class InstallationService {
                 .toList();
     }
 
+    // Instalaciones activas de un tipo, como entidades para los cálculos de disponibilidad
+    public List<Installation> getActiveByType(String type) {
+        if (type == null || type.isBlank()) {
+            throw new BusinessException("El tipo de instalación es obligatorio");
+        }
+        return installationRepository.findByTypeAndActiveTrueOrderByNameAsc(parseType(type));
+    }
+
     public Installation getByIdOrThrow(Long id) {
         return installationRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("Instalación no encontrada con id " + id));
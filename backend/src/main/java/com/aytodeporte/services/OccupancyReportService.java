@@ -0,0 +1,194 @@
+// Servicio de informes de ocupación e ingresos por mes y por año para el panel de administración.
+// Se responde solo con los acumulados de ocupacion_resumen, sin leer la tabla reservas.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.HourBandOccupancy;
+import com.aytodeporte.dto.InstallationOccupancy;
+import com.aytodeporte.dto.OccupancyReportResponse;
+import com.aytodeporte.dto.OccupancyRollupRow;
+import com.aytodeporte.dto.PeriodOccupancy;
+import com.aytodeporte.repositories.InstallationRepository;
+import com.aytodeporte.repositories.OccupancyRollupRepository;
+import com.aytodeporte.utils.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class OccupancyReportService {
+
+    private static final int MIN_YEAR = 2000;
+    private static final int MAX_YEAR = 2100;
+
+    // Minutos de apertura de una instalación en un día
+    private static final long OPEN_MINUTES_PER_DAY =
+            Duration.between(ReservationService.OPEN_TIME, ReservationService.CLOSE_TIME).toMinutes();
+
+    private final OccupancyRollupRepository rollupRepository;
+    private final InstallationRepository installationRepository;
+    private final InstallationService installationService;
+    private final OccupancyRollup occupancyRollup;
+
+    // Informe de un mes con desglose por día
+    public OccupancyReportResponse getMonthlyReport(int year, int month, Long installationId) {
+        YearMonth yearMonth;
+        try {
+            yearMonth = YearMonth.of(validateYear(year), month);
+        } catch (DateTimeException ex) {
+            throw new BusinessException("Mes no válido: " + month);
+        }
+        LocalDate from = yearMonth.atDay(1);
+        LocalDate to = yearMonth.plusMonths(1).atDay(1);
+        long installations = installationsInScope(installationId);
+
+        Map<String, Totals> byDay = new LinkedHashMap<>();
+        for (LocalDate day = from; day.isBefore(to); day = day.plusDays(1)) {
+            byDay.put(day.toString(), Totals.empty(1));
+        }
+        for (OccupancyRollupRow row : rollupRepository.totalsByDay(from, to, installationId)) {
+            byDay.computeIfPresent(row.date().toString(), (k, t) -> t.plus(row));
+        }
+
+        return buildReport(yearMonth.toString(), from, to, installationId, installations, byDay);
+    }
+
+    // Informe de un año con desglose por mes
+    public OccupancyReportResponse getYearlyReport(int year, Long installationId) {
+        LocalDate from = LocalDate.of(validateYear(year), 1, 1);
+        LocalDate to = from.plusYears(1);
+        long installations = installationsInScope(installationId);
+
+        // Los días se agrupan por mes aquí: como mucho 366 filas y sin funciones de fecha del dialecto
+        Map<String, Totals> byMonth = new LinkedHashMap<>();
+        for (YearMonth m = YearMonth.from(from); m.isBefore(YearMonth.from(to)); m = m.plusMonths(1)) {
+            byMonth.put(m.toString(), Totals.empty(m.lengthOfMonth()));
+        }
+        for (OccupancyRollupRow row : rollupRepository.totalsByDay(from, to, installationId)) {
+            byMonth.computeIfPresent(YearMonth.from(row.date()).toString(), (k, t) -> t.plus(row));
+        }
+
+        return buildReport(String.valueOf(year), from, to, installationId, installations, byMonth);
+    }
+
+    // Reconstrucción manual de los acumulados; devuelve las filas generadas
+    public int rebuildRollups() {
+        return occupancyRollup.rebuild();
+    }
+
+    // ===================== CONSTRUCCIÓN DEL INFORME =====================
+
+    private OccupancyReportResponse buildReport(String period, LocalDate from, LocalDate to, Long installationId,
+                                                long installations, Map<String, Totals> byPeriod) {
+        long days = ChronoUnit.DAYS.between(from, to);
+
+        List<PeriodOccupancy> periods = new ArrayList<>();
+        long reservations = 0;
+        long bookedMinutes = 0;
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (Map.Entry<String, Totals> e : byPeriod.entrySet()) {
+            Totals t = e.getValue();
+            long capacity = installations * t.days() * OPEN_MINUTES_PER_DAY;
+            periods.add(new PeriodOccupancy(e.getKey(), t.reservations(), t.bookedMinutes(),
+                    money(t.revenue()), rate(t.bookedMinutes(), capacity)));
+            reservations += t.reservations();
+            bookedMinutes += t.bookedMinutes();
+            revenue = revenue.add(t.revenue());
+        }
+
+        List<InstallationOccupancy> byInstallation = rollupRepository
+                .totalsByInstallation(from, to, installationId)
+                .stream()
+                .map(r -> new InstallationOccupancy(r.installationId(), r.installationName(), r.reservations(),
+                        r.bookedMinutes(), money(r.revenue()),
+                        rate(r.bookedMinutes(), days * OPEN_MINUTES_PER_DAY)))
+                .toList();
+
+        return new OccupancyReportResponse(
+                period,
+                from.toString(),
+                to.minusDays(1).toString(),
+                installationId,
+                reservations,
+                bookedMinutes,
+                money(revenue),
+                rate(bookedMinutes, installations * days * OPEN_MINUTES_PER_DAY),
+                byInstallation,
+                periods,
+                hourBands(from, to, installationId, installations * days)
+        );
+    }
+
+    // Todas las franjas de apertura, también las que no tienen reservas
+    private List<HourBandOccupancy> hourBands(LocalDate from, LocalDate to, Long installationId,
+                                              long installationDays) {
+        Map<Integer, Totals> byHour = new LinkedHashMap<>();
+        for (int h = ReservationService.OPEN_TIME.getHour(); h < ReservationService.CLOSE_TIME.getHour(); h++) {
+            byHour.put(h, Totals.empty(0));
+        }
+        for (OccupancyRollupRow row : rollupRepository.totalsByHour(from, to, installationId)) {
+            byHour.computeIfPresent(row.hour(), (k, t) -> t.plus(row));
+        }
+
+        return byHour.entrySet().stream()
+                .map(e -> new HourBandOccupancy(e.getKey(), e.getValue().reservations(),
+                        e.getValue().bookedMinutes(), money(e.getValue().revenue()),
+                        rate(e.getValue().bookedMinutes(), installationDays * 60)))
+                .toList();
+    }
+
+    // Instalaciones cuya apertura cuenta como capacidad: la del filtro o todas las activas.
+    // La capacidad no descuenta bloqueos: la ocupación se mide sobre el horario de apertura
+    private long installationsInScope(Long installationId) {
+        if (installationId != null) {
+            installationService.getByIdOrThrow(installationId);
+            return 1;
+        }
+        return installationRepository.countByActiveTrue();
+    }
+
+    private static int validateYear(int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new BusinessException("Año no válido: " + year);
+        }
+        return year;
+    }
+
+    private static BigDecimal money(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static double rate(long bookedMinutes, long capacityMinutes) {
+        if (capacityMinutes <= 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(bookedMinutes)
+                .divide(BigDecimal.valueOf(capacityMinutes), 4, RoundingMode.HALF_EVEN)
+                .doubleValue();
+    }
+
+    // Suma de un periodo del desglose; days es el número de días que cubre, para su capacidad
+    private record Totals(long days, long reservations, long bookedMinutes, BigDecimal revenue) {
+
+        static Totals empty(long days) {
+            return new Totals(days, 0, 0, BigDecimal.ZERO);
+        }
+
+        Totals plus(OccupancyRollupRow row) {
+            return new Totals(days, reservations + row.reservations(), bookedMinutes + row.bookedMinutes(),
+                    revenue.add(row.revenue()));
+        }
+    }
+}
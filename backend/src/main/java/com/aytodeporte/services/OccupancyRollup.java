@@ -0,0 +1,144 @@
+// Mantenimiento de los acumulados de ocupación e ingresos por instalación, día y franja de una hora.
+// Cada alta o cancelación los actualiza antes del commit de su misma transacción; un proceso nocturno los reconstruye.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.OccupancyRollupRow;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.repositories.OccupancyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OccupancyRollup {
+
+    // Decimales del reparto del importe entre franjas (los de la columna importe)
+    private static final int REVENUE_SCALE = 4;
+
+    // Orden de clave de ocupacion_resumen: todas las transacciones bloquean sus filas en este orden
+    private static final Comparator<OccupancyRollupRow> KEY_ORDER = Comparator
+            .comparing(OccupancyRollupRow::installationId)
+            .thenComparing(OccupancyRollupRow::date)
+            .thenComparing(OccupancyRollupRow::hour);
+
+    private final OccupancyRollupRepository rollupRepository;
+
+    // Los cambios se acumulan durante la transacción que crea o cancela las reservas y se aplican
+    // juntos antes del commit: o se guardan las reservas y sus acumulados, o ninguno de los dos.
+    // Una serie o una cancelación masiva publica un evento por reserva en su propio orden; al fusionar
+    // y ordenar por clave dos transacciones nunca bloquean las mismas filas en orden contrario
+    @EventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        int sign = event.status() == ReservationStatus.CONFIRMED ? 1 : -1;
+        List<OccupancyRollupRow> deltas = deltas(event, sign);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rollupRepository.apply(deltas);
+            return;
+        }
+
+        PendingDeltas pending = (PendingDeltas) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingDeltas();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(deltas);
+    }
+
+    // Reconstrucción completa desde reservas_slots; corrige cualquier desviación de los incrementos
+    @Scheduled(cron = "${aytodeporte.rollups.rebuild-cron:0 30 3 * * *}")
+    public int rebuild() {
+        long startNanos = System.nanoTime();
+        int rows = rollupRepository.rebuild();
+        log.info("Acumulados de ocupación reconstruidos: {} filas en {} ms",
+                rows, Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        return rows;
+    }
+
+    // Primera puesta en marcha: sin acumulados no hay informes hasta la reconstrucción nocturna
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (rollupRepository.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    // Una fila por franja horaria que toca la reserva, en orden ascendente. Los minutos y el importe se
+    // reparten por tramos de 30 minutos; la reserva se cuenta solo en la franja en la que empieza
+    private static List<OccupancyRollupRow> deltas(ReservationChangedEvent event, int sign) {
+        List<LocalDateTime> slots = ReservationService.slotStarts(event.start(), event.end());
+        BigDecimal revenuePerSlot = event.amount()
+                .divide(BigDecimal.valueOf(slots.size()), REVENUE_SCALE, RoundingMode.HALF_EVEN);
+
+        List<OccupancyRollupRow> deltas = new ArrayList<>();
+        OccupancyRollupRow band = null;
+        for (LocalDateTime slot : slots) {
+            if (band != null && band.date().equals(slot.toLocalDate()) && band.hour() == slot.getHour()) {
+                band = new OccupancyRollupRow(band.installationId(), null, band.date(), band.hour(),
+                        band.reservations(),
+                        band.bookedMinutes() + sign * ReservationService.SLOT_MINUTES,
+                        band.revenue().add(revenuePerSlot.multiply(BigDecimal.valueOf(sign))));
+                deltas.set(deltas.size() - 1, band);
+                continue;
+            }
+            band = new OccupancyRollupRow(event.installationId(), null, slot.toLocalDate(), slot.getHour(),
+                    slot.equals(event.start()) ? sign : 0,
+                    sign * ReservationService.SLOT_MINUTES,
+                    revenuePerSlot.multiply(BigDecimal.valueOf(sign)));
+            deltas.add(band);
+        }
+        return deltas;
+    }
+
+    private static OccupancyRollupRow sum(OccupancyRollupRow a, OccupancyRollupRow b) {
+        return new OccupancyRollupRow(a.installationId(), null, a.date(), a.hour(),
+                a.reservations() + b.reservations(),
+                a.bookedMinutes() + b.bookedMinutes(),
+                a.revenue().add(b.revenue()));
+    }
+
+    // Cambios de una transacción fusionados por franja; se aplican en un único lote antes del commit
+    private class PendingDeltas implements TransactionSynchronization {
+
+        private final Map<OccupancyRollupRow, OccupancyRollupRow> byKey = new TreeMap<>(KEY_ORDER);
+
+        void add(List<OccupancyRollupRow> deltas) {
+            deltas.forEach(d -> byKey.merge(d, d, OccupancyRollup::sum));
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Un alta y su cancelación en la misma transacción se anulan: no hace falta tocar la fila
+            List<OccupancyRollupRow> merged = byKey.values().stream()
+                    .filter(d -> d.reservations() != 0 || d.bookedMinutes() != 0 || d.revenue().signum() != 0)
+                    .toList();
+            if (!merged.isEmpty()) {
+                rollupRepository.apply(merged);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OccupancyRollup.this);
+        }
+    }
+}
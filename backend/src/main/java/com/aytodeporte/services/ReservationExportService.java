@@ -0,0 +1,183 @@
+// Servicio de exportación contable de reservas en CSV o NDJSON, escrita fila a fila en un flujo de salida.
+// La memoria usada no depende del número de filas: solo la del búfer de escritura y la fila en curso.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.ReservationExportRow;
+import com.aytodeporte.repositories.ReservationExportRepository;
+import com.aytodeporte.utils.BusinessException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+@Service
+@RequiredArgsConstructor
+public class ReservationExportService {
+
+    private static final String CSV_HEADER = "id,codigo,usuario_id,email,instalacion_id,instalacion,"
+            + "inicio,fin,duracion_minutos,estado,importe,creado_en\n";
+
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private final ReservationExportRepository exportRepository;
+    private final InstallationService installationService;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    // Valida los filtros antes de escribir nada: con la respuesta ya empezada no se puede devolver un error JSON
+    public Format validate(String format, LocalDate from, LocalDate to, Long installationId) {
+        if (to.isBefore(from)) {
+            throw new BusinessException("La fecha fin no puede ser anterior al inicio");
+        }
+        if (installationId != null) {
+            installationService.getByIdOrThrow(installationId);
+        }
+        try {
+            return Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new BusinessException("Formato de exportación no válido: " + format + " (csv o ndjson)");
+        }
+    }
+
+    // Reservas que empiezan entre from y to (ambos incluidos), opcionalmente de una sola instalación
+    public void export(Format format, LocalDate from, LocalDate to, Long installationId, OutputStream out)
+            throws IOException {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        try {
+            switch (format) {
+                case CSV -> writeCsv(start, end, installationId, out);
+                case NDJSON -> writeNdjson(start, end, installationId, out);
+            }
+        } catch (UncheckedIOException ex) {
+            // Normalmente el cliente ha cortado la descarga: se aborta el recorrido del cursor
+            throw ex.getCause();
+        }
+    }
+
+    // ===================== ESCRITURA POR FORMATO =====================
+
+    private void writeCsv(LocalDateTime start, LocalDateTime end, Long installationId, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_CHARS);
+        writer.write(CSV_HEADER);
+
+        exportRepository.forEach(start, end, installationId, unchecked(row -> {
+            writer.write(row.id().toString());
+            writer.write(',');
+            writer.write(csv(row.code()));
+            writer.write(',');
+            writer.write(row.userId().toString());
+            writer.write(',');
+            writer.write(csv(row.userEmail()));
+            writer.write(',');
+            writer.write(row.installationId().toString());
+            writer.write(',');
+            writer.write(csv(row.installationName()));
+            writer.write(',');
+            writer.write(row.start().toString());
+            writer.write(',');
+            writer.write(row.end().toString());
+            writer.write(',');
+            writer.write(Long.toString(Duration.between(row.start(), row.end()).toMinutes()));
+            writer.write(',');
+            writer.write(row.status());
+            writer.write(',');
+            writer.write(row.amount().toPlainString());
+            writer.write(',');
+            writer.write(row.createdAt().toString());
+            writer.write('\n');
+        }));
+        writer.flush();
+    }
+
+    private void writeNdjson(LocalDateTime start, LocalDateTime end, Long installationId, OutputStream out)
+            throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        // Sin el espacio que Jackson pone por defecto entre valores raíz: cada línea empieza con '{'
+        json.setRootValueSeparator(null);
+
+        exportRepository.forEach(start, end, installationId, unchecked(row -> {
+            json.writeStartObject();
+            json.writeNumberField("id", row.id());
+            json.writeStringField("code", row.code());
+            json.writeNumberField("userId", row.userId());
+            json.writeStringField("userEmail", row.userEmail());
+            json.writeNumberField("installationId", row.installationId());
+            json.writeStringField("installationName", row.installationName());
+            json.writeStringField("start", row.start().toString());
+            json.writeStringField("end", row.end().toString());
+            json.writeNumberField("durationMinutes",
+                    Duration.between(row.start(), row.end()).toMinutes());
+            json.writeStringField("status", row.status());
+            json.writeNumberField("amount", row.amount());
+            json.writeStringField("createdAt", row.createdAt().toString());
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }));
+        json.flush();
+    }
+
+    // Campo de texto CSV (RFC 4180): entre comillas si contiene separador, comillas o saltos de línea
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        boolean plain = value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0;
+        if (plain) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Consumer<ReservationExportRow> unchecked(RowWriter writer) {
+        return row -> {
+            try {
+                writer.write(row);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ReservationExportRow row) throws IOException;
+    }
+}
@@ -0,0 +1,60 @@
+// Comprobaciones de solape de una reserva nueva: con otras reservas de la instalación, con retenciones
+// de otros usuarios y con reservas del propio usuario. Cada choque se señala con BusinessException.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.models.User;
+import com.aytodeporte.repositories.ReservationRepository;
+import com.aytodeporte.utils.BusinessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+import static com.aytodeporte.services.ReservationService.earliestStart;
+
+@Component
+@RequiredArgsConstructor
+public class ReservationOverlapValidator {
+
+    private final ReservationRepository reservationRepository;
+    private final InstallationOverlapIndex overlapIndex;
+    private final SlotHoldManager slotHoldManager;
+
+    public void validateInstallationOverlaps(Installation installation,
+                                             Long userId,
+                                             LocalDateTime start,
+                                             int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+
+        // Con el índice cargado la comprobación es una búsqueda en memoria
+        boolean overlapping = overlapIndex.isReady()
+                ? overlapIndex.findOverlap(installation.getId(), start, end).isPresent()
+                : !reservationRepository.findOverlappingByInstallation(installation,
+                        ReservationStatus.CONFIRMED, earliestStart(start), start, end).isEmpty();
+
+        if (overlapping) {
+            throw new BusinessException(
+                    "La instalación ya está reservada en ese intervalo horario");
+        }
+
+        // Las retenciones temporales de otros usuarios también ocupan el tramo
+        if (slotHoldManager.findOverlapByOthers(installation.getId(), userId, start, end).isPresent()) {
+            throw new BusinessException("El horario está retenido temporalmente por otro usuario");
+        }
+    }
+
+    public void validateUserOverlaps(User user,
+                                     LocalDateTime start,
+                                     int durationMinutes) {
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+
+        if (!reservationRepository.findOverlappingByUser(user,
+                ReservationStatus.CONFIRMED, earliestStart(start), start, end).isEmpty()) {
+            throw new BusinessException(
+                    "Ya tienes otra reserva en un horario solapado");
+        }
+    }
+}
@@ -0,0 +1,379 @@
+// Servicio para crear series de reservas periódicas (p. ej. un club que reserva todos los martes).
+// Valida todas las ocurrencias con una consulta por tipo de conflicto e inserta las válidas en lote.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.BlockInterval;
+import com.aytodeporte.dto.ReservationInterval;
+import com.aytodeporte.dto.ReservationSeriesRequest;
+import com.aytodeporte.dto.ReservationSeriesResponse;
+import com.aytodeporte.dto.SeriesOccurrenceResult;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.Reservation;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.models.User;
+import com.aytodeporte.repositories.ReservationBatchRepository;
+import com.aytodeporte.repositories.ReservationRepository;
+import com.aytodeporte.repositories.SlotClaimRepository;
+import com.aytodeporte.utils.BusinessException;
+import com.aytodeporte.utils.CodeGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static com.aytodeporte.services.ReservationService.MIN_HOURS_BEFORE;
+import static com.aytodeporte.services.ReservationService.earliestStart;
+
+@Service
+public class ReservationSeriesService {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationBatchRepository reservationBatchRepository;
+    private final BlockSnapshot blockSnapshot;
+    private final SlotClaimRepository slotClaimRepository;
+    private final SlotHoldManager slotHoldManager;
+    private final UserService userService;
+    private final InstallationService installationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Excepción administrativa al límite de MAX_DAYS_BEFORE días de antelación
+    private final int maxDaysAhead;
+    private final int maxOccurrences;
+
+    public ReservationSeriesService(ReservationRepository reservationRepository,
+                                    ReservationBatchRepository reservationBatchRepository,
+                                    BlockSnapshot blockSnapshot,
+                                    SlotClaimRepository slotClaimRepository,
+                                    SlotHoldManager slotHoldManager,
+                                    UserService userService,
+                                    InstallationService installationService,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${aytodeporte.series.max-days-ahead:180}") int maxDaysAhead,
+                                    @Value("${aytodeporte.series.max-occurrences:200}") int maxOccurrences) {
+        this.reservationRepository = reservationRepository;
+        this.reservationBatchRepository = reservationBatchRepository;
+        this.blockSnapshot = blockSnapshot;
+        this.slotClaimRepository = slotClaimRepository;
+        this.slotHoldManager = slotHoldManager;
+        this.userService = userService;
+        this.installationService = installationService;
+        this.eventPublisher = eventPublisher;
+        this.maxDaysAhead = maxDaysAhead;
+        this.maxOccurrences = maxOccurrences;
+    }
+
+    @Transactional
+    public ReservationSeriesResponse createSeries(ReservationSeriesRequest request) {
+        if (request.getDurationMinutes() == null) {
+            throw new BusinessException("La duración es obligatoria");
+        }
+        int durationMinutes = request.getDurationMinutes();
+        LocalDateTime firstStart = parseDateTime(request.getStart(), "inicio");
+        LocalDate until = parseDate(request.getUntil(), "fecha fin");
+
+        // Todas las ocurrencias comparten hora y duración: basta validarlas una vez
+        ReservationService.validateDuration(durationMinutes);
+        ReservationService.validateStartTime(firstStart, durationMinutes);
+        validateSeriesWindow(firstStart, until);
+
+        List<LocalDateTime> starts = expand(firstStart, until,
+                intervalWeeks(request.getIntervalWeeks()), daysOfWeek(request.getDaysOfWeek(), firstStart));
+        if (starts.isEmpty()) {
+            throw new BusinessException("La regla de repetición no genera ninguna fecha");
+        }
+        if (starts.size() > maxOccurrences) {
+            throw new BusinessException("Una serie no puede superar " + maxOccurrences + " reservas");
+        }
+
+        User user = userService.getByIdOrThrow(request.getUserId());
+        Installation installation = installationService.getByIdOrThrow(request.getInstallationId());
+
+        // Una sola consulta por tipo de reserva sobre el rango completo de la serie;
+        // los bloqueos salen de la instantánea en memoria
+        LocalDateTime rangeStart = starts.get(0);
+        LocalDateTime rangeEnd = starts.get(starts.size() - 1).plusMinutes(durationMinutes);
+
+        NavigableMap<LocalDateTime, ReservationInterval> installationBusy = byStart(
+                reservationRepository.findOverlappingByInstallation(installation,
+                        ReservationStatus.CONFIRMED, earliestStart(rangeStart), rangeStart, rangeEnd));
+        NavigableMap<LocalDateTime, ReservationInterval> userBusy = byStart(
+                reservationRepository.findOverlappingByUser(user,
+                        ReservationStatus.CONFIRMED, earliestStart(rangeStart), rangeStart, rangeEnd));
+        List<BlockInterval> seriesBlocks = new ArrayList<>(blockSnapshot.findGlobal(rangeStart, rangeEnd));
+        seriesBlocks.addAll(blockSnapshot.findByInstallation(installation, rangeStart, rangeEnd));
+        BlockSweep blocks = new BlockSweep(seriesBlocks);
+
+        BigDecimal amount = ReservationService.calculateAmount(durationMinutes);
+        LocalDateTime now = LocalDateTime.now();
+
+        Map<LocalDateTime, String> rejected = new LinkedHashMap<>();
+        List<Reservation> accepted = new ArrayList<>();
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plusMinutes(durationMinutes);
+            String reason = conflict(installation, user, start, end, blocks, installationBusy, userBusy);
+            if (reason != null) {
+                rejected.put(start, reason);
+                continue;
+            }
+
+            accepted.add(Reservation.builder()
+                    .user(user)
+                    .installation(installation)
+                    .start(start)
+                    .end(end)
+                    .amount(amount)
+                    .code(CodeGenerator.generateReservationCode())
+                    .status(ReservationStatus.CONFIRMED)
+                    .createdAt(now)
+                    .build());
+        }
+
+        reservationBatchRepository.insertAll(accepted);
+        claimSlots(installation, accepted, rejected);
+        accepted.forEach(r -> eventPublisher.publishEvent(ReservationChangedEvent.of(r)));
+
+        return toResponse(user, installation, starts, durationMinutes, accepted, rejected, amount);
+    }
+
+    // ===================== VALIDACIONES PRIVADAS =====================
+
+    private void validateSeriesWindow(LocalDateTime firstStart, LocalDate until) {
+        LocalDateTime now = LocalDateTime.now();
+
+        if (!firstStart.isAfter(now.plusHours(MIN_HOURS_BEFORE))) {
+            throw new BusinessException("Las reservas deben hacerse con al menos "
+                    + MIN_HOURS_BEFORE + " horas de antelación");
+        }
+        if (until.isBefore(firstStart.toLocalDate())) {
+            throw new BusinessException("La fecha fin no puede ser anterior al inicio");
+        }
+        if (until.isAfter(now.toLocalDate().plusDays(maxDaysAhead))) {
+            throw new BusinessException("Una serie solo puede programarse con hasta "
+                    + maxDaysAhead + " días de antelación");
+        }
+    }
+
+    // Devuelve el motivo por el que una ocurrencia no puede crearse, o null si es válida.
+    // Mismo orden y mensajes que las validaciones de una reserva individual.
+    private String conflict(Installation installation,
+                            User user,
+                            LocalDateTime start,
+                            LocalDateTime end,
+                            BlockSweep blocks,
+                            NavigableMap<LocalDateTime, ReservationInterval> installationBusy,
+                            NavigableMap<LocalDateTime, ReservationInterval> userBusy) {
+        BlockInterval block = blocks.advanceTo(start, end);
+        if (block != null) {
+            return block.isGlobal()
+                    ? "La reserva no está permitida debido a un bloqueo global: " + block.reason()
+                    : "La reserva no está permitida debido a un bloqueo: " + block.reason();
+        }
+        if (overlaps(installationBusy, start, end)) {
+            return "La instalación ya está reservada en ese intervalo horario";
+        }
+        if (slotHoldManager.findOverlapByOthers(installation.getId(), user.getId(), start, end).isPresent()) {
+            return "El horario está retenido temporalmente por otro usuario";
+        }
+        if (overlaps(userBusy, start, end)) {
+            return "Ya tienes otra reserva en un horario solapado";
+        }
+        return null;
+    }
+
+    // Ninguna reserva dura más de MAX_DURATION_MIN: solo hay que mirar las que empiezan en esa ventana
+    private static boolean overlaps(NavigableMap<LocalDateTime, ReservationInterval> busy,
+                                    LocalDateTime start,
+                                    LocalDateTime end) {
+        return busy.subMap(earliestStart(start), true, end, false).values().stream()
+                .anyMatch(r -> r.end().isAfter(start));
+    }
+
+    private static NavigableMap<LocalDateTime, ReservationInterval> byStart(List<ReservationInterval> intervals) {
+        NavigableMap<LocalDateTime, ReservationInterval> map = new TreeMap<>();
+        for (ReservationInterval r : intervals) {
+            // Con datos antiguos solapados basta conservar el intervalo que acaba más tarde
+            map.merge(r.start(), r, (a, b) -> a.end().isAfter(b.end()) ? a : b);
+        }
+        return map;
+    }
+
+    // Una reserva concurrente puede ocupar algún tramo entre la validación y el lote: esas ocurrencias
+    // se borran y pasan a rechazadas sin deshacer el resto de la serie
+    private void claimSlots(Installation installation,
+                            List<Reservation> accepted,
+                            Map<LocalDateTime, String> rejected) {
+        Map<Long, List<LocalDateTime>> slots = new LinkedHashMap<>();
+        for (Reservation r : accepted) {
+            slots.put(r.getId(), ReservationService.slotStarts(r.getStart(), r.getEnd()));
+        }
+
+        Set<Long> unclaimed;
+        try {
+            unclaimed = slotClaimRepository.tryClaimAll(installation.getId(), slots);
+        } catch (PessimisticLockingFailureException ex) {
+            throw new BusinessException(
+                    "Otra reserva ha ocupado alguno de los tramos de la serie; vuelve a intentarlo");
+        }
+        if (unclaimed.isEmpty()) {
+            return;
+        }
+
+        reservationBatchRepository.deleteAll(unclaimed);
+        for (Iterator<Reservation> it = accepted.iterator(); it.hasNext(); ) {
+            Reservation r = it.next();
+            if (unclaimed.contains(r.getId())) {
+                rejected.put(r.getStart(), "La instalación ya está reservada en ese intervalo horario");
+                it.remove();
+            }
+        }
+    }
+
+    // ===================== REGLA DE REPETICIÓN =====================
+
+    // Expande la regla semanal en orden cronológico: cada intervalWeeks semanas, en los días indicados
+    static List<LocalDateTime> expand(LocalDateTime firstStart,
+                                      LocalDate until,
+                                      int intervalWeeks,
+                                      TreeSet<DayOfWeek> days) {
+        LocalDate firstDate = firstStart.toLocalDate();
+        LocalDate week = firstDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (; !week.isAfter(until); week = week.plusWeeks(intervalWeeks)) {
+            for (DayOfWeek day : days) {
+                LocalDate date = week.with(TemporalAdjusters.nextOrSame(day));
+                if (!date.isBefore(firstDate) && !date.isAfter(until)) {
+                    starts.add(date.atTime(firstStart.toLocalTime()));
+                }
+            }
+        }
+        return starts;
+    }
+
+    private static int intervalWeeks(Integer intervalWeeks) {
+        if (intervalWeeks == null) {
+            return 1;
+        }
+        if (intervalWeeks < 1) {
+            throw new BusinessException("El intervalo de semanas debe ser al menos 1");
+        }
+        return intervalWeeks;
+    }
+
+    private static TreeSet<DayOfWeek> daysOfWeek(List<String> values, LocalDateTime firstStart) {
+        TreeSet<DayOfWeek> days = new TreeSet<>();
+        if (values == null || values.isEmpty()) {
+            days.add(firstStart.getDayOfWeek());
+            return days;
+        }
+        for (String value : values) {
+            try {
+                days.add(DayOfWeek.valueOf(value.trim().toUpperCase()));
+            } catch (IllegalArgumentException ex) {
+                throw new BusinessException("Día de la semana no válido: " + value);
+            }
+        }
+        return days;
+    }
+
+    private static LocalDateTime parseDateTime(String value, String field) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new BusinessException("Formato de " + field + " no válido: " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value, String field) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException | NullPointerException ex) {
+            throw new BusinessException("Formato de " + field + " no válido: " + value);
+        }
+    }
+
+    // ===================== MAPPER A DTO =====================
+
+    private static ReservationSeriesResponse toResponse(User user,
+                                                        Installation installation,
+                                                        List<LocalDateTime> starts,
+                                                        int durationMinutes,
+                                                        List<Reservation> accepted,
+                                                        Map<LocalDateTime, String> rejected,
+                                                        BigDecimal amount) {
+        Map<LocalDateTime, Reservation> created = new LinkedHashMap<>();
+        accepted.forEach(r -> created.put(r.getStart(), r));
+
+        List<SeriesOccurrenceResult> occurrences = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            LocalDateTime end = start.plusMinutes(durationMinutes);
+            Reservation r = created.get(start);
+            occurrences.add(r != null
+                    ? new SeriesOccurrenceResult(start, end, true, r.getId(), r.getCode(), null)
+                    : new SeriesOccurrenceResult(start, end, false, null, null, rejected.get(start)));
+        }
+
+        return new ReservationSeriesResponse(
+                user.getId(),
+                installation.getId(),
+                starts.size(),
+                accepted.size(),
+                rejected.keySet().stream().map(LocalDateTime::toLocalDate).sorted().toList(),
+                amount.multiply(BigDecimal.valueOf(accepted.size())),
+                occurrences
+        );
+    }
+
+    // Recorrido de barrido sobre los bloqueos ordenados por inicio: como las ocurrencias
+    // llegan en orden cronológico, cada bloqueo entra y sale de los activos una sola vez
+    private static final class BlockSweep {
+
+        private final List<BlockInterval> sorted;
+        private final List<BlockInterval> active = new ArrayList<>();
+        private int next;
+
+        BlockSweep(List<BlockInterval> blocks) {
+            this.sorted = blocks.stream()
+                    .sorted(Comparator.comparing(BlockInterval::start))
+                    .toList();
+        }
+
+        // Primer bloqueo que solapa con [start, end), con prioridad para los globales
+        BlockInterval advanceTo(LocalDateTime start, LocalDateTime end) {
+            while (next < sorted.size() && sorted.get(next).start().isBefore(end)) {
+                active.add(sorted.get(next++));
+            }
+
+            BlockInterval found = null;
+            for (Iterator<BlockInterval> it = active.iterator(); it.hasNext(); ) {
+                BlockInterval b = it.next();
+                if (!b.end().isAfter(start)) {
+                    it.remove();
+                } else if (b.start().isBefore(end) && (found == null || (!found.isGlobal() && b.isGlobal()))) {
+                    found = b;
+                }
+            }
+            return found;
+        }
+    }
+}
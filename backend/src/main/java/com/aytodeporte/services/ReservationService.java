@@ -3,26 +3,38 @@
 
 package com.aytodeporte.services;
 
+import com.aytodeporte.dto.AvailabilityCacheStats;
+import com.aytodeporte.dto.AvailabilityGridResponse;
+import com.aytodeporte.dto.BlockInterval;
 import com.aytodeporte.dto.DailyAvailabilityResponse;
+import com.aytodeporte.dto.PageResponse;
 import com.aytodeporte.dto.ReservationResponse;
-import com.aytodeporte.dto.TimeSlotResponse;
-import com.aytodeporte.models.Block;
+import com.aytodeporte.dto.SlotHoldResponse;
+import com.aytodeporte.events.ReservationChangedEvent;
 import com.aytodeporte.models.Installation;
 import com.aytodeporte.models.Reservation;
 import com.aytodeporte.models.ReservationStatus;
 import com.aytodeporte.models.User;
-import com.aytodeporte.repositories.BlockRepository;
 import com.aytodeporte.repositories.ReservationRepository;
+import com.aytodeporte.repositories.SlotClaimRepository;
 import com.aytodeporte.utils.BusinessException;
 import com.aytodeporte.utils.CodeGenerator;
+import com.aytodeporte.utils.PageCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -33,23 +45,33 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final UserService userService;
     private final InstallationService installationService;
-    private final BlockRepository blockRepository;
+    private final BlockSnapshot blockSnapshot;
+    private final ReservationOverlapValidator overlapValidator;
+    private final SlotCalendar slotCalendar;
+    private final AvailabilityCache availabilityCache;
+    private final AvailabilityVersions availabilityVersions;
+    private final SlotChangeBroadcaster slotChangeBroadcaster;
+    private final SlotClaimRepository slotClaimRepository;
+    private final SlotHoldManager slotHoldManager;
+    private final WaitlistService waitlistService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // Reglas de negocio de horarios y límites
-    private static final LocalTime OPEN_TIME = LocalTime.of(8, 0);
-    private static final LocalTime CLOSE_TIME = LocalTime.of(23, 0);
+    static final LocalTime OPEN_TIME = LocalTime.of(8, 0);
+    static final LocalTime CLOSE_TIME = LocalTime.of(23, 0);
     private static final int MIN_DURATION_MIN = 60;
     private static final int MAX_DURATION_MIN = 180;
-    private static final int SLOT_MINUTES = 30;
+    static final int SLOT_MINUTES = 30;
     private static final int MAX_DAYS_BEFORE = 15;
-    private static final int MIN_HOURS_BEFORE = 2;
-    private static final int CANCEL_HOURS_BEFORE = 4;
+    static final int MIN_HOURS_BEFORE = 2;
+    static final int CANCEL_HOURS_BEFORE = 4;
 
     @Transactional
     public ReservationResponse createReservation(Long userId,
                                                  Long installationId,
                                                  LocalDateTime start,
-                                                 int durationMinutes) {
+                                                 int durationMinutes,
+                                                 String holdToken) {
 
         // Validaciones generales de tiempo y ventana de reserva
         validateDuration(durationMinutes);
@@ -60,14 +82,18 @@ public class ReservationService {
         Installation installation = installationService.getByIdOrThrow(installationId);
         LocalDateTime end = start.plusMinutes(durationMinutes);
 
-        // Comprobar bloqueos globales y específicos de la instalación
-        validateBlocks(installation, start, end);
+        // Una retención vigente de este usuario ya pasó las validaciones de bloqueos y solapes
+        boolean held = slotHoldManager.isValid(holdToken, userId, installationId, start, end);
+        if (!held) {
+            // Comprobar bloqueos globales y específicos de la instalación
+            validateBlocks(installation, start, end);
 
-        // Comprobar solapes con otras reservas de esa instalación
-        validateInstallationOverlaps(installation, start, durationMinutes);
+            // Comprobar solapes con otras reservas y retenciones de esa instalación
+            overlapValidator.validateInstallationOverlaps(installation, userId, start, durationMinutes);
 
-        // Comprobar solapes con reservas del propio usuario
-        validateUserOverlaps(user, start, durationMinutes);
+            // Comprobar solapes con reservas del propio usuario
+            overlapValidator.validateUserOverlaps(user, start, durationMinutes);
+        }
 
         BigDecimal amount = calculateAmount(durationMinutes);
         String code = CodeGenerator.generateReservationCode();
@@ -86,7 +112,49 @@ public class ReservationService {
                 .build();
 
         Reservation saved = reservationRepository.save(reservation);
-        return toResponse(saved);
+        claimSlots(saved);
+        if (held) {
+            slotHoldManager.releaseAfterCommit(holdToken);
+        }
+        eventPublisher.publishEvent(ReservationChangedEvent.of(saved));
+        return ReservationResponse.fromEntity(saved);
+    }
+
+    // Retiene temporalmente un tramo mientras el usuario confirma la reserva
+    public SlotHoldResponse holdSlot(Long userId,
+                                     Long installationId,
+                                     LocalDateTime start,
+                                     int durationMinutes) {
+        validateDuration(durationMinutes);
+        validateStartTime(start, durationMinutes);
+        validateReservationWindow(start);
+
+        User user = userService.getByIdOrThrow(userId);
+        Installation installation = installationService.getByIdOrThrow(installationId);
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+
+        validateBlocks(installation, start, end);
+        overlapValidator.validateInstallationOverlaps(installation, userId, start, durationMinutes);
+        overlapValidator.validateUserOverlaps(user, start, durationMinutes);
+
+        return slotHoldManager.place(userId, installationId, start, end);
+    }
+
+    // Convierte una retención vigente en una reserva confirmada
+    @Transactional
+    public ReservationResponse confirmHold(String holdToken, Long userId) {
+        SlotHoldResponse hold = slotHoldManager.find(holdToken)
+                .orElseThrow(() -> new BusinessException("La retención no existe o ha caducado"));
+        if (!hold.userId().equals(userId)) {
+            throw new BusinessException("No tienes permiso para confirmar esta retención");
+        }
+
+        int durationMinutes = (int) Duration.between(hold.start(), hold.end()).toMinutes();
+        return createReservation(userId, hold.installationId(), hold.start(), durationMinutes, holdToken);
+    }
+
+    public void releaseHold(String holdToken, Long userId) {
+        slotHoldManager.release(holdToken, userId);
     }
 
     @Transactional
@@ -113,117 +181,106 @@ public class ReservationService {
 
         reservation.setStatus(ReservationStatus.CANCELLED);
         Reservation updated = reservationRepository.save(reservation);
-        return toResponse(updated);
+        slotClaimRepository.release(updated.getId());
+        eventPublisher.publishEvent(ReservationChangedEvent.of(updated));
+
+        // El tramo liberado pasa al primero de la lista de espera que pueda ocuparlo
+        waitlistService.promote(updated);
+        return ReservationResponse.fromEntity(updated);
     }
 
     @Transactional(readOnly = true)
     public List<ReservationResponse> getReservationsByUser(Long userId) {
-        User user = userService.getByIdOrThrow(userId);
-        List<Reservation> list =
-                reservationRepository.findByUserAndStatus(user, ReservationStatus.CONFIRMED);
+        List<ReservationResponse> list =
+                reservationRepository.findResponsesByUser(userId, ReservationStatus.CONFIRMED);
 
-        return list.stream()
-                .map(this::toResponse)
-                .toList();
+        // Solo una lista vacía obliga a comprobar que el usuario existe (y a lanzar el error si no)
+        if (list.isEmpty()) {
+            userService.getByIdOrThrow(userId);
+        }
+        return list;
     }
 
     @Transactional(readOnly = true)
     public List<ReservationResponse> getReservationsByInstallation(Long installationId) {
-        Installation installation = installationService.getByIdOrThrow(installationId);
-        List<Reservation> list =
-                reservationRepository.findByInstallationAndStatus(installation, ReservationStatus.CONFIRMED);
+        List<ReservationResponse> list =
+                reservationRepository.findResponsesByInstallation(installationId, ReservationStatus.CONFIRMED);
 
-        return list.stream()
-                .map(this::toResponse)
-                .toList();
+        if (list.isEmpty()) {
+            installationService.getByIdOrThrow(installationId);
+        }
+        return list;
     }
 
+    // Página de reservas confirmadas de una instalación ordenadas por (inicio, id)
     @Transactional(readOnly = true)
-    public DailyAvailabilityResponse getDailyAvailability(Long installationId, LocalDate date) {
-        Installation installation = installationService.getByIdOrThrow(installationId);
-
-        LocalDateTime dayStart = date.atTime(OPEN_TIME);
-        LocalDateTime dayEnd = date.atTime(CLOSE_TIME);
-
-        // Filtra reservas del día para esa instalación
-        List<Reservation> allInstallationReservations =
-                reservationRepository.findByInstallationAndStatus(installation, ReservationStatus.CONFIRMED);
-
-        List<Reservation> dayReservations = new ArrayList<>();
-        for (Reservation r : allInstallationReservations) {
-            if (overlaps(r.getStart(), r.getEnd(), dayStart, dayEnd)) {
-                dayReservations.add(r);
-            }
+    public PageResponse<ReservationResponse> getReservationPageByInstallation(Long installationId,
+                                                                            String cursor,
+                                                                            int size) {
+        PageCursor after = PageCursor.parse(cursor);
+        List<ReservationResponse> rows = reservationRepository.findResponsePageByInstallation(installationId,
+                ReservationStatus.CONFIRMED, after.start(), after.id(), Limit.of(size + 1));
+
+        if (rows.isEmpty()) {
+            installationService.getByIdOrThrow(installationId);
         }
+        return PageResponse.of(rows, size, r -> PageCursor.encode(r.getStart(), r.getId()));
+    }
 
-        // Recupera bloqueos globales y específicos
-        List<Block> globalBlocks = blockRepository.findByInstallationIsNull();
-        List<Block> installationBlocks = blockRepository.findByInstallation(installation);
-
-        // Genera la parrilla de slots de 30 minutos entre la apertura y el cierre
-        List<TimeSlotResponse> slots = new ArrayList<>();
-        LocalDateTime slotStart = dayStart;
-
-        while (slotStart.isBefore(dayEnd)) {
-            LocalDateTime slotEnd = slotStart.plusMinutes(SLOT_MINUTES);
-            if (slotEnd.isAfter(dayEnd)) {
-                break;
-            }
-
-            String status = "DISPONIBLE";
-            String reason = null;
-
-            // 1) Bloqueos globales
-            for (Block block : globalBlocks) {
-                if (overlaps(slotStart, slotEnd, block.getStart(), block.getEnd())) {
-                    status = "BLOQUEADO";
-                    reason = block.getReason();
-                    break;
-                }
-            }
-
-            // 2) Bloqueos específicos de la instalación
-            if (!"BLOQUEADO".equals(status)) {
-                for (Block block : installationBlocks) {
-                    if (overlaps(slotStart, slotEnd, block.getStart(), block.getEnd())) {
-                        status = "BLOQUEADO";
-                        reason = block.getReason();
-                        break;
-                    }
-                }
-            }
-
-            // 3) Reservas existentes
-            if ("DISPONIBLE".equals(status)) {
-                for (Reservation r : dayReservations) {
-                    if (overlaps(slotStart, slotEnd, r.getStart(), r.getEnd())) {
-                        status = "RESERVADO";
-                        break;
-                    }
-                }
-            }
-
-            slots.add(new TimeSlotResponse(
-                    slotStart.toString(),
-                    slotEnd.toString(),
-                    status,
-                    reason
-            ));
-
-            slotStart = slotEnd;
+    // Sin transacción: un acierto de caché no llega a pedir conexión al pool
+    public DailyAvailabilityResponse getDailyAvailability(Long installationId, LocalDate date) {
+        DailyAvailabilityResponse cached = availabilityCache.get(installationId, date);
+        if (cached != null) {
+            return cached;
         }
 
-        return new DailyAvailabilityResponse(
+        long stamp = availabilityCache.stamp();
+        Installation installation = installationService.getByIdOrThrow(installationId);
+
+        // La parrilla de slots de 30 minutos sale de las máscaras del calendario
+        DailyAvailabilityResponse response = new DailyAvailabilityResponse(
                 installation.getId(),
                 installation.getName(),
                 date.toString(),
-                slots
+                slotCalendar.render(installation, date)
         );
+
+        availabilityCache.put(response, stamp);
+        return response;
+    }
+
+    @Transactional(readOnly = true)
+    public AvailabilityGridResponse getAvailabilityGrid(String type, LocalDate from, LocalDate to) {
+        validateDateRange(from, to);
+
+        long stamp = availabilityCache.stamp();
+        List<Installation> installations = installationService.getActiveByType(type);
+
+        List<DailyAvailabilityResponse> days = slotCalendar.renderGrid(installations, from, to);
+        days.forEach(day -> availabilityCache.put(day, stamp));
+
+        return new AvailabilityGridResponse(type, from.toString(), to.toString(), days);
+    }
+
+    // Suscripción SSE a los cambios de slots de una instalación en un rango de días
+    public SseEmitter subscribeToSlotChanges(Long installationId, LocalDate from, LocalDate to) {
+        validateDateRange(from, to);
+        installationService.getByIdOrThrow(installationId);
+        return slotChangeBroadcaster.subscribe(installationId, from, to);
+    }
+
+    // ETag de la disponibilidad de un día: solo consulta contadores en memoria
+    public String getAvailabilityETag(Long installationId, LocalDate date) {
+        return availabilityVersions.etag(installationId, date);
+    }
+
+    public AvailabilityCacheStats getAvailabilityCacheStats() {
+        return availabilityCache.stats();
     }
 
     // ===================== VALIDACIONES PRIVADAS =====================
 
-    private void validateDuration(int durationMinutes) {
+    static void validateDuration(int durationMinutes) {
         if (durationMinutes < MIN_DURATION_MIN || durationMinutes > MAX_DURATION_MIN) {
             throw new BusinessException("La duración debe estar entre 60 y 180 minutos");
         }
@@ -232,7 +289,7 @@ public class ReservationService {
         }
     }
 
-    private void validateStartTime(LocalDateTime start, int durationMinutes) {
+    static void validateStartTime(LocalDateTime start, int durationMinutes) {
         LocalTime startTime = start.toLocalTime();
 
         int minute = startTime.getMinute();
@@ -252,7 +309,7 @@ public class ReservationService {
         }
     }
 
-    private void validateReservationWindow(LocalDateTime start) {
+    static void validateReservationWindow(LocalDateTime start) {
         LocalDateTime now = LocalDateTime.now();
 
         if (!start.isAfter(now.plusHours(MIN_HOURS_BEFORE))) {
@@ -266,68 +323,60 @@ public class ReservationService {
         }
     }
 
-    private void validateBlocks(Installation installation, LocalDateTime start, LocalDateTime end) {
-        List<Block> globalBlocks = blockRepository.findByInstallationIsNull();
-        for (Block block : globalBlocks) {
-            if (overlaps(start, end, block.getStart(), block.getEnd())) {
-                throw new BusinessException("La reserva no está permitida debido a un bloqueo global: "
-                        + block.getReason());
-            }
+    private void validateDateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new BusinessException("La fecha fin no puede ser anterior al inicio");
         }
-
-        List<Block> installationBlocks = blockRepository.findByInstallation(installation);
-        for (Block block : installationBlocks) {
-            if (overlaps(start, end, block.getStart(), block.getEnd())) {
-                throw new BusinessException("La reserva no está permitida debido a un bloqueo: "
-                        + block.getReason());
-            }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_DAYS_BEFORE) {
+            throw new BusinessException("El rango de fechas no puede superar "
+                    + MAX_DAYS_BEFORE + " días");
         }
     }
 
-    private void validateInstallationOverlaps(Installation installation,
-                                              LocalDateTime start,
-                                              int durationMinutes) {
-        List<Reservation> reservations =
-                reservationRepository.findByInstallationAndStatus(installation, ReservationStatus.CONFIRMED);
-
-        LocalDateTime end = start.plusMinutes(durationMinutes);
-
-        for (Reservation existing : reservations) {
-            LocalDateTime exStart = existing.getStart();
-            LocalDateTime exEnd = existing.getEnd();
+    // Búsqueda en la instantánea de bloqueos y reglas en memoria, sin consultas
+    private void validateBlocks(Installation installation, LocalDateTime start, LocalDateTime end) {
+        List<BlockInterval> globalBlocks = blockSnapshot.findGlobal(start, end);
+        if (!globalBlocks.isEmpty()) {
+            throw new BusinessException("La reserva no está permitida debido a un bloqueo global: "
+                    + globalBlocks.get(0).reason());
+        }
 
-            if (overlaps(start, end, exStart, exEnd)) {
-                throw new BusinessException(
-                        "La instalación ya está reservada en ese intervalo horario");
-            }
+        List<BlockInterval> installationBlocks = blockSnapshot.findByInstallation(installation, start, end);
+        if (!installationBlocks.isEmpty()) {
+            throw new BusinessException("La reserva no está permitida debido a un bloqueo: "
+                    + installationBlocks.get(0).reason());
         }
     }
 
-    private void validateUserOverlaps(User user,
-                                      LocalDateTime start,
-                                      int durationMinutes) {
-        List<Reservation> reservations =
-                reservationRepository.findByUserAndStatus(user, ReservationStatus.CONFIRMED);
-
-        LocalDateTime end = start.plusMinutes(durationMinutes);
-
-        for (Reservation existing : reservations) {
-            LocalDateTime exStart = existing.getStart();
-            LocalDateTime exEnd = existing.getEnd();
+    // Reclama atómicamente los tramos de 30 minutos de la reserva: si dos peticiones
+    // concurrentes pasan las validaciones, la clave única deja pasar solo a una
+    private void claimSlots(Reservation reservation) {
+        try {
+            slotClaimRepository.claim(
+                    reservation.getInstallation().getId(),
+                    reservation.getId(),
+                    slotStarts(reservation.getStart(), reservation.getEnd()));
+        } catch (DuplicateKeyException | PessimisticLockingFailureException ex) {
+            // El perdedor de un interbloqueo también ha chocado con una reserva concurrente
+            throw new BusinessException(
+                    "La instalación ya está reservada en ese intervalo horario");
+        }
+    }
 
-            if (overlaps(start, end, exStart, exEnd)) {
-                throw new BusinessException(
-                        "Ya tienes otra reserva en un horario solapado");
-            }
+    static List<LocalDateTime> slotStarts(LocalDateTime start, LocalDateTime end) {
+        List<LocalDateTime> slots = new ArrayList<>();
+        for (LocalDateTime slot = start; slot.isBefore(end); slot = slot.plusMinutes(SLOT_MINUTES)) {
+            slots.add(slot);
         }
+        return slots;
     }
 
-    private boolean overlaps(LocalDateTime start1, LocalDateTime end1,
-                             LocalDateTime start2, LocalDateTime end2) {
-        return start1.isBefore(end2) && start2.isBefore(end1);
+    // Ninguna reserva dura más de MAX_DURATION_MIN: las que empiezan antes no pueden solapar
+    static LocalDateTime earliestStart(LocalDateTime start) {
+        return start.minusMinutes(MAX_DURATION_MIN);
     }
 
-    private BigDecimal calculateAmount(int durationMinutes) {
+    static BigDecimal calculateAmount(int durationMinutes) {
         int extraMinutes = durationMinutes - 60;
         BigDecimal amount = BigDecimal.valueOf(3.0);
 
@@ -339,22 +388,4 @@ public class ReservationService {
         }
         return amount;
     }
-
-    // ===================== MAPPER A DTO =====================
-
-    private ReservationResponse toResponse(Reservation r) {
-        return new ReservationResponse(
-                r.getId(),
-                r.getUser().getId(),
-                r.getUser().getEmail(),
-                r.getInstallation().getId(),
-                r.getInstallation().getName(),
-                r.getStart(),
-                r.getEnd(),
-                r.getDurationMinutes(),
-                r.getStatus().name(),
-                r.getCode(),
-                r.getAmount()
-        );
-    }
 }
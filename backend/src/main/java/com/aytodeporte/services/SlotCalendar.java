@@ -0,0 +1,354 @@
+// Motor de calendario de slots: guarda cada día de instalación como máscaras de bits de 30 slots.
+// Calcula la disponibilidad con operaciones de bits y se actualiza de forma incremental tras cada commit.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.BlockInterval;
+import com.aytodeporte.dto.DailyAvailabilityResponse;
+import com.aytodeporte.dto.ReservationInterval;
+import com.aytodeporte.dto.TimeSlotResponse;
+import com.aytodeporte.events.BlockChangedEvent;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.repositories.ReservationRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static com.aytodeporte.services.ReservationService.CLOSE_TIME;
+import static com.aytodeporte.services.ReservationService.OPEN_TIME;
+import static com.aytodeporte.services.ReservationService.SLOT_MINUTES;
+
+@Component
+@RequiredArgsConstructor
+public class SlotCalendar {
+
+    public static final String AVAILABLE = "DISPONIBLE";
+    public static final String BLOCKED = "BLOQUEADO";
+    public static final String RESERVED = "RESERVADO";
+    public static final String HELD = "RETENIDO";
+
+    // Número de slots entre apertura y cierre (30 con el horario 08:00-23:00, cabe en un int)
+    static final int SLOTS_PER_DAY =
+            (int) (Duration.between(OPEN_TIME, CLOSE_TIME).toMinutes() / SLOT_MINUTES);
+
+    private static final long SLOT_SECONDS = SLOT_MINUTES * 60L;
+
+    private final ReservationRepository reservationRepository;
+    private final BlockSnapshot blockSnapshot;
+    private final SlotHoldManager slotHoldManager;
+
+    // Días de instalación (reservas + bloqueos propios) y días globales (bloqueos globales)
+    private final ConcurrentHashMap<DayKey, DayMasks> installationDays = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<LocalDate, DayMasks> globalDays = new ConcurrentHashMap<>();
+
+    // Se incrementa con cada cambio para no cachear cargas que hayan competido con un evento
+    private final AtomicLong changes = new AtomicLong();
+    private volatile LocalDate lastPrune = LocalDate.MIN;
+
+    public List<TimeSlotResponse> render(Installation installation, LocalDate date) {
+        return renderSlots(date, globalDay(date), installationDay(installation, date),
+                slotHoldManager.heldMask(installation.getId(), date));
+    }
+
+    // Parrilla de varias instalaciones y días: una consulta de reservas para todo el rango,
+    // bloqueos desde la instantánea en memoria y cálculo de cada instalación en paralelo
+    public List<DailyAvailabilityResponse> renderGrid(List<Installation> installations,
+                                                      LocalDate from,
+                                                      LocalDate to) {
+        if (installations.isEmpty()) {
+            return List.of();
+        }
+
+        long version = changes.get();
+        LocalDateTime rangeStart = from.atTime(OPEN_TIME);
+        LocalDateTime rangeEnd = to.atTime(CLOSE_TIME);
+
+        Map<Long, List<ReservationInterval>> reservationsByInstallation = reservationRepository
+                .findOverlappingByInstallations(installations, ReservationStatus.CONFIRMED,
+                        ReservationService.earliestStart(rangeStart), rangeStart, rangeEnd)
+                .stream()
+                .collect(Collectors.groupingBy(ReservationInterval::installationId));
+
+        List<BlockInterval> globalBlocks = blockSnapshot.findGlobal(rangeStart, rangeEnd);
+
+        List<LocalDate> dates = from.datesUntil(to.plusDays(1)).toList();
+        Map<LocalDate, DayMasks> globalMasks = new HashMap<>();
+        for (LocalDate date : dates) {
+            DayMasks masks = DayMasks.empty().withBlocks(date, globalBlocks);
+            globalMasks.put(date, remember(globalDays, date, date, masks, version));
+        }
+
+        return installations.parallelStream()
+                .flatMap(installation -> {
+                    List<ReservationInterval> reservations =
+                            reservationsByInstallation.getOrDefault(installation.getId(), List.of());
+                    List<BlockInterval> blocks =
+                            blockSnapshot.findByInstallation(installation, rangeStart, rangeEnd);
+
+                    return dates.stream().map(date -> {
+                        DayMasks own = DayMasks.empty()
+                                .withReservations(date, reservations)
+                                .withBlocks(date, blocks);
+                        own = remember(installationDays, new DayKey(installation.getId(), date), date, own, version);
+
+                        return new DailyAvailabilityResponse(
+                                installation.getId(),
+                                installation.getName(),
+                                date.toString(),
+                                renderSlots(date, globalMasks.get(date), own,
+                                        slotHoldManager.heldMask(installation.getId(), date))
+                        );
+                    });
+                })
+                .toList();
+    }
+
+    private List<TimeSlotResponse> renderSlots(LocalDate date, DayMasks global, DayMasks own, int heldMask) {
+        // Prioridad: bloqueo global > bloqueo de la instalación > reserva > retención temporal
+        int globalBlocked = global.blocked();
+        int blocked = globalBlocked | own.blocked();
+        int reserved = own.reserved() & ~blocked;
+        int held = heldMask & ~blocked & ~reserved;
+
+        List<TimeSlotResponse> slots = new ArrayList<>(SLOTS_PER_DAY);
+        LocalDateTime slotStart = date.atTime(OPEN_TIME);
+
+        for (int i = 0; i < SLOTS_PER_DAY; i++) {
+            LocalDateTime slotEnd = slotStart.plusMinutes(SLOT_MINUTES);
+            int bit = 1 << i;
+
+            String status = AVAILABLE;
+            String reason = null;
+            if ((blocked & bit) != 0) {
+                status = BLOCKED;
+                reason = (globalBlocked & bit) != 0 ? global.reasons()[i] : own.reasons()[i];
+            } else if ((reserved & bit) != 0) {
+                status = RESERVED;
+            } else if ((held & bit) != 0) {
+                status = HELD;
+            }
+
+            slots.add(new TimeSlotResponse(slotStart.toString(), slotEnd.toString(), status, reason));
+            slotStart = slotEnd;
+        }
+        return slots;
+    }
+
+    // ===================== SINCRONIZACIÓN INCREMENTAL =====================
+
+    // Se ejecutan antes que las invalidaciones de cachés construidas a partir de estas máscaras
+    @Order(ListenerOrder.ENGINES)
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        changes.incrementAndGet();
+
+        LocalDate date = event.start().toLocalDate();
+        int mask = maskFor(date, event.start(), event.end());
+        boolean reserved = event.status() == ReservationStatus.CONFIRMED;
+
+        installationDays.computeIfPresent(new DayKey(event.installationId(), date),
+                (key, masks) -> masks.withReserved(mask, reserved));
+    }
+
+    @Order(ListenerOrder.ENGINES)
+    @TransactionalEventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        changes.incrementAndGet();
+
+        for (LocalDate date = event.start().toLocalDate();
+             !date.isAfter(event.end().toLocalDate());
+             date = date.plusDays(1)) {
+
+            int mask = maskFor(date, event.start(), event.end());
+            if (mask == 0) {
+                continue;
+            }
+
+            // Al borrar un bloqueo otros pueden seguir cubriendo esos slots: se recalcula el día
+            if (event.isGlobal()) {
+                if (event.deleted()) {
+                    globalDays.remove(date);
+                } else {
+                    globalDays.computeIfPresent(date, (key, masks) -> masks.withBlock(mask, event.reason()));
+                }
+            } else {
+                DayKey key = new DayKey(event.installationId(), date);
+                if (event.deleted()) {
+                    installationDays.remove(key);
+                } else {
+                    installationDays.computeIfPresent(key, (k, masks) -> masks.withBlock(mask, event.reason()));
+                }
+            }
+        }
+    }
+
+    // Una regla recurrente puede afectar a cualquier día: se descartan todos los días en memoria
+    @Order(ListenerOrder.ENGINES)
+    @TransactionalEventListener
+    public void onBlockRuleChanged(BlockRuleChangedEvent event) {
+        changes.incrementAndGet();
+        installationDays.clear();
+        globalDays.clear();
+    }
+
+    // ===================== CARGA DESDE BD =====================
+
+    private DayMasks installationDay(Installation installation, LocalDate date) {
+        DayKey key = new DayKey(installation.getId(), date);
+        DayMasks cached = installationDays.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = changes.get();
+        DayMasks loaded = loadInstallationDay(installation, date);
+        return remember(installationDays, key, date, loaded, version);
+    }
+
+    private DayMasks globalDay(LocalDate date) {
+        DayMasks cached = globalDays.get(date);
+        if (cached != null) {
+            return cached;
+        }
+
+        long version = changes.get();
+        DayMasks loaded = loadGlobalDay(date);
+        return remember(globalDays, date, date, loaded, version);
+    }
+
+    // Solo se guardan días desde hoy y si ningún cambio ha llegado durante la carga
+    private <K> DayMasks remember(ConcurrentHashMap<K, DayMasks> days, K key, LocalDate date,
+                                  DayMasks loaded, long version) {
+        LocalDate today = LocalDate.now();
+        pruneBefore(today);
+
+        if (date.isBefore(today) || changes.get() != version) {
+            return loaded;
+        }
+        DayMasks previous = days.putIfAbsent(key, loaded);
+        if (previous != null) {
+            return previous;
+        }
+
+        // Un evento que incrementa el contador entre la comprobación y el putIfAbsent no encuentra el día
+        // y no lo actualiza: se descarta lo guardado. Si lo incrementa después, su cambio se aplica encima.
+        // Se quita por clave y no por valor porque el evento pudo sustituir ya la entrada
+        if (changes.get() != version) {
+            days.remove(key);
+        }
+        return loaded;
+    }
+
+    private void pruneBefore(LocalDate today) {
+        if (today.equals(lastPrune)) {
+            return;
+        }
+        lastPrune = today;
+        installationDays.keySet().removeIf(key -> key.date().isBefore(today));
+        globalDays.keySet().removeIf(date -> date.isBefore(today));
+    }
+
+    private DayMasks loadInstallationDay(Installation installation, LocalDate date) {
+        LocalDateTime dayStart = date.atTime(OPEN_TIME);
+        LocalDateTime dayEnd = date.atTime(CLOSE_TIME);
+
+        return DayMasks.empty()
+                .withReservations(date, reservationRepository.findOverlappingByInstallation(installation,
+                        ReservationStatus.CONFIRMED, ReservationService.earliestStart(dayStart), dayStart, dayEnd))
+                .withBlocks(date, blockSnapshot.findByInstallation(installation, dayStart, dayEnd));
+    }
+
+    private DayMasks loadGlobalDay(LocalDate date) {
+        return DayMasks.empty()
+                .withBlocks(date, blockSnapshot.findGlobal(date.atTime(OPEN_TIME), date.atTime(CLOSE_TIME)));
+    }
+
+    // ===================== MÁSCARAS =====================
+
+    // Máscara de los slots del día que se solapan con [start, end)
+    static int maskFor(LocalDate date, LocalDateTime start, LocalDateTime end) {
+        LocalDateTime open = date.atTime(OPEN_TIME);
+        LocalDateTime close = date.atTime(CLOSE_TIME);
+
+        LocalDateTime from = start.isAfter(open) ? start : open;
+        LocalDateTime to = end.isBefore(close) ? end : close;
+        if (!from.isBefore(to)) {
+            return 0;
+        }
+
+        int first = (int) (Duration.between(open, from).toSeconds() / SLOT_SECONDS);
+        int last = (int) ((Duration.between(open, to).toSeconds() + SLOT_SECONDS - 1) / SLOT_SECONDS);
+        return rangeMask(first, last);
+    }
+
+    // Bits [from, to) a uno
+    static int rangeMask(int from, int to) {
+        int width = to - from;
+        if (width <= 0) {
+            return 0;
+        }
+        return (width >= Integer.SIZE ? -1 : (1 << width) - 1) << from;
+    }
+
+    private record DayKey(Long installationId, LocalDate date) {}
+
+    // Estado inmutable de un día: se sustituye entero en cada cambio
+    private record DayMasks(int reserved, int blocked, String[] reasons) {
+
+        static DayMasks empty() {
+            return new DayMasks(0, 0, new String[SLOTS_PER_DAY]);
+        }
+
+        DayMasks withReservations(LocalDate date, List<ReservationInterval> reservations) {
+            int mask = 0;
+            for (ReservationInterval r : reservations) {
+                mask |= maskFor(date, r.start(), r.end());
+            }
+            return withReserved(mask, true);
+        }
+
+        DayMasks withBlocks(LocalDate date, List<BlockInterval> blocks) {
+            DayMasks masks = this;
+            for (BlockInterval b : blocks) {
+                masks = masks.withBlock(maskFor(date, b.start(), b.end()), b.reason());
+            }
+            return masks;
+        }
+
+        DayMasks withReserved(int mask, boolean value) {
+            int updated = value ? reserved | mask : reserved & ~mask;
+            return updated == reserved ? this : new DayMasks(updated, blocked, reasons);
+        }
+
+        // El primer bloqueo que cubre un slot es el que aporta el motivo
+        DayMasks withBlock(int mask, String reason) {
+            int newBits = mask & ~blocked;
+            if (newBits == 0) {
+                return this;
+            }
+            String[] updatedReasons = reasons.clone();
+            for (int i = 0; i < SLOTS_PER_DAY; i++) {
+                if ((newBits & (1 << i)) != 0) {
+                    updatedReasons[i] = reason;
+                }
+            }
+            return new DayMasks(reserved, blocked | newBits, updatedReasons);
+        }
+    }
+}
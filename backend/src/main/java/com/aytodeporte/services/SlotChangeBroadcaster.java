@@ -0,0 +1,196 @@
+// Difusión por Server-Sent Events de los cambios de slots por instalación y rango de fechas.
+// Usa buffers acotados por suscriptor, un límite de conexiones y envíos asíncronos sin hilos bloqueados.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.SlotDeltaEvent;
+import com.aytodeporte.events.BlockChangedEvent;
+import com.aytodeporte.events.BlockRuleChangedEvent;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.events.SlotHoldChangedEvent;
+import com.aytodeporte.models.ReservationStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class SlotChangeBroadcaster {
+
+    private final TaskExecutor executor;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMillis;
+
+    // Suscriptores por instalación: un cambio solo recorre los interesados
+    private final ConcurrentHashMap<Long, Set<Subscriber>> byInstallation = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public SlotChangeBroadcaster(@Qualifier("applicationTaskExecutor") TaskExecutor executor,
+                                 @Value("${aytodeporte.slot-stream.max-subscribers:1000}") int maxSubscribers,
+                                 @Value("${aytodeporte.slot-stream.buffer-size:64}") int bufferSize,
+                                 @Value("${aytodeporte.slot-stream.timeout:PT30M}") Duration timeout) {
+        this.executor = executor;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public SseEmitter subscribe(Long installationId, LocalDate from, LocalDate to) {
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Se ha alcanzado el máximo de conexiones en tiempo real");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(installationId, from, to, emitter, bufferSize);
+        byInstallation.computeIfAbsent(installationId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(ex -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.get();
+    }
+
+    // ===================== PUBLICACIÓN TRAS COMMIT =====================
+
+    @Order(ListenerOrder.NOTIFICATIONS)
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        String type = event.status() == ReservationStatus.CONFIRMED ? "RESERVA_CREADA" : "RESERVA_CANCELADA";
+        publish(event.installationId(), event.start(), event.end(), type, null);
+    }
+
+    @Order(ListenerOrder.NOTIFICATIONS)
+    @TransactionalEventListener
+    public void onBlockChanged(BlockChangedEvent event) {
+        String type = event.deleted() ? "BLOQUEO_ELIMINADO" : "BLOQUEO_CREADO";
+        publish(event.installationId(), event.start(), event.end(), type, event.reason());
+    }
+
+    @Order(ListenerOrder.NOTIFICATIONS)
+    @EventListener
+    public void onHoldChanged(SlotHoldChangedEvent event) {
+        String type = event.active() ? "RETENCION_CREADA" : "RETENCION_LIBERADA";
+        publish(event.installationId(), event.start(), event.end(), type, null);
+    }
+
+    // Una regla recurrente puede cambiar cualquier día: todos los clientes reciben el aviso de resincronizar
+    @Order(ListenerOrder.NOTIFICATIONS)
+    @TransactionalEventListener
+    public void onBlockRuleChanged(BlockRuleChangedEvent event) {
+        byInstallation.values().forEach(set -> set.forEach(s -> {
+            s.queue.clear();
+            s.overflow.set(true);
+            scheduleDrain(s);
+        }));
+    }
+
+    // Un installationId nulo llega a todos los suscriptores cuyo rango incluya esas fechas
+    void publish(Long installationId, LocalDateTime start, LocalDateTime end, String type, String reason) {
+        SlotDeltaEvent delta = new SlotDeltaEvent(type, installationId, start.toString(), end.toString(), reason);
+        LocalDate from = start.toLocalDate();
+        LocalDate to = end.toLocalDate();
+
+        if (installationId == null) {
+            byInstallation.values().forEach(set -> offerAll(set, delta, from, to));
+        } else {
+            Set<Subscriber> set = byInstallation.get(installationId);
+            if (set != null) {
+                offerAll(set, delta, from, to);
+            }
+        }
+    }
+
+    private void offerAll(Set<Subscriber> set, SlotDeltaEvent delta, LocalDate from, LocalDate to) {
+        for (Subscriber s : set) {
+            if (s.from.isAfter(to) || s.to.isBefore(from)) {
+                continue;
+            }
+            // Buffer lleno: se descartan los pendientes y el cliente recibe un aviso de resincronizar
+            if (!s.queue.offer(delta)) {
+                s.queue.clear();
+                s.overflow.set(true);
+            }
+            scheduleDrain(s);
+        }
+    }
+
+    private void scheduleDrain(Subscriber s) {
+        if (s.draining.compareAndSet(false, true)) {
+            executor.execute(() -> drain(s));
+        }
+    }
+
+    private void drain(Subscriber s) {
+        try {
+            if (s.overflow.getAndSet(false)) {
+                s.emitter.send(SseEmitter.event().name("resync").data(s.installationId));
+            }
+            SlotDeltaEvent delta;
+            while ((delta = s.queue.poll()) != null) {
+                s.emitter.send(SseEmitter.event().name("slot").data(delta));
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Suscriptor SSE desconectado: {}", ex.getMessage());
+            unsubscribe(s);
+            return;
+        } finally {
+            s.draining.set(false);
+        }
+
+        // Lo que haya llegado mientras se enviaba se programa de nuevo
+        if (!s.queue.isEmpty() || s.overflow.get()) {
+            scheduleDrain(s);
+        }
+    }
+
+    private void unsubscribe(Subscriber s) {
+        Set<Subscriber> set = byInstallation.get(s.installationId);
+        if (set != null && set.remove(s)) {
+            subscribers.decrementAndGet();
+        }
+    }
+
+    private static final class Subscriber {
+        final Long installationId;
+        final LocalDate from;
+        final LocalDate to;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<SlotDeltaEvent> queue;
+        final AtomicBoolean overflow = new AtomicBoolean();
+        final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(Long installationId, LocalDate from, LocalDate to, SseEmitter emitter, int bufferSize) {
+            this.installationId = installationId;
+            this.from = from;
+            this.to = to;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
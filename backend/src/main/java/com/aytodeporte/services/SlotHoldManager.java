@@ -0,0 +1,232 @@
+// Gestor en memoria de retenciones temporales de slots durante la confirmación de una reserva.
+// Las retenciones cuentan como ocupadas y caducan mediante una rueda temporal, sin sondear la BD.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.SlotHoldResponse;
+import com.aytodeporte.events.SlotHoldChangedEvent;
+import com.aytodeporte.utils.BusinessException;
+import com.aytodeporte.utils.HashedTimingWheel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import static com.aytodeporte.services.ReservationService.CLOSE_TIME;
+import static com.aytodeporte.services.ReservationService.OPEN_TIME;
+
+@Component
+public class SlotHoldManager {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final HashedTimingWheel<String> wheel;
+
+    private final ConcurrentHashMap<String, Hold> byToken = new ConcurrentHashMap<>();
+
+    // Por instalación y ordenadas por inicio: las retenciones de una instalación no se solapan
+    private final ConcurrentHashMap<Long, NavigableMap<LocalDateTime, Hold>> byInstallation =
+            new ConcurrentHashMap<>();
+
+    public SlotHoldManager(ApplicationEventPublisher eventPublisher,
+                           @Value("${aytodeporte.holds.ttl:PT5M}") Duration ttl,
+                           @Value("${aytodeporte.holds.tick:PT1S}") Duration tick) {
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        // Una vuelta de la rueda cubre el TTL: casi todas caducan en su primera pasada
+        int wheelSize = (int) Math.max(1, ttl.toMillis() / tick.toMillis() + 1);
+        this.wheel = new HashedTimingWheel<>(tick.toMillis(), wheelSize,
+                System.currentTimeMillis(), this::expire);
+    }
+
+    // Crea la retención si no choca con la de otro usuario. Las retenciones propias que se solapan se
+    // sustituyen: el usuario ha cambiado de horario o de duración antes de confirmar.
+    // La comprobación frente a reservas la hace el servicio antes; si una reserva concurrente gana,
+    // la confirmación fallará al reclamar los slots.
+    public SlotHoldResponse place(Long userId, Long installationId, LocalDateTime start, LocalDateTime end) {
+        Hold hold = new Hold(UUID.randomUUID().toString(), userId, installationId, start, end,
+                Instant.now().plus(ttl));
+
+        List<Hold> replaced = new ArrayList<>();
+        boolean[] placed = {false};
+        byInstallation.compute(installationId, (id, holds) -> {
+            NavigableMap<LocalDateTime, Hold> map = holds != null ? holds : new ConcurrentSkipListMap<>();
+            List<Hold> overlapping = overlapsIn(map, start, end);
+            if (overlapping.stream().allMatch(h -> h.getUserId().equals(userId))) {
+                overlapping.forEach(h -> map.remove(h.getStart(), h));
+                replaced.addAll(overlapping);
+                map.put(start, hold);
+                placed[0] = true;
+            }
+            return map;
+        });
+        if (!placed[0]) {
+            throw new BusinessException("El horario está retenido temporalmente por otro usuario");
+        }
+
+        replaced.forEach(this::discard);
+        byToken.put(hold.getToken(), hold);
+        hold.timeout = wheel.schedule(hold.getToken(), hold.getExpiresAt().toEpochMilli());
+        eventPublisher.publishEvent(new SlotHoldChangedEvent(installationId, start, end, true));
+        return hold.toResponse();
+    }
+
+    public Optional<SlotHoldResponse> find(String token) {
+        return active(token).map(Hold::toResponse);
+    }
+
+    // Retención de otro usuario que se solapa con [start, end) en la instalación
+    public Optional<SlotHoldResponse> findOverlapByOthers(Long installationId, Long userId,
+                                                          LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Hold> holds = byInstallation.get(installationId);
+        if (holds == null) {
+            return Optional.empty();
+        }
+        return overlapsIn(holds, start, end).stream()
+                .filter(h -> !h.getUserId().equals(userId))
+                .findFirst()
+                .map(Hold::toResponse);
+    }
+
+    // True si el token sigue vigente y corresponde exactamente a esa reserva
+    public boolean isValid(String token, Long userId, Long installationId,
+                           LocalDateTime start, LocalDateTime end) {
+        return active(token)
+                .filter(h -> h.getUserId().equals(userId)
+                        && h.getInstallationId().equals(installationId)
+                        && h.getStart().equals(start)
+                        && h.getEnd().equals(end))
+                .isPresent();
+    }
+
+    // Máscara de slots retenidos en un día, con el mismo formato que el calendario
+    public int heldMask(Long installationId, LocalDate date) {
+        NavigableMap<LocalDateTime, Hold> holds = byInstallation.get(installationId);
+        if (holds == null || holds.isEmpty()) {
+            return 0;
+        }
+        int mask = 0;
+        for (Hold h : holds.subMap(ReservationService.earliestStart(date.atTime(OPEN_TIME)),
+                date.atTime(CLOSE_TIME)).values()) {
+            mask |= SlotCalendar.maskFor(date, h.getStart(), h.getEnd());
+        }
+        return mask;
+    }
+
+    public void release(String token, Long userId) {
+        Hold hold = active(token)
+                .orElseThrow(() -> new BusinessException("La retención no existe o ha caducado"));
+        if (!hold.getUserId().equals(userId)) {
+            throw new BusinessException("No tienes permiso para liberar esta retención");
+        }
+        remove(token);
+    }
+
+    // La retención se consume solo si la reserva llega a confirmarse
+    public void releaseAfterCommit(String token) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(token);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(token);
+            }
+        });
+    }
+
+    public int size() {
+        return byToken.size();
+    }
+
+    // ===================== CADUCIDAD =====================
+
+    @Scheduled(fixedDelayString = "${aytodeporte.holds.tick:PT1S}")
+    public void tick() {
+        wheel.advance(System.currentTimeMillis());
+    }
+
+    private void expire(String token) {
+        remove(token);
+    }
+
+    private void remove(String token) {
+        Hold hold = byToken.remove(token);
+        if (hold == null) {
+            return;
+        }
+        NavigableMap<LocalDateTime, Hold> holds = byInstallation.get(hold.getInstallationId());
+        if (holds != null) {
+            holds.remove(hold.getStart(), hold);
+        }
+        discard(hold);
+    }
+
+    // Cancela la caducidad y avisa de que los slots quedan libres; ya fuera del índice por instalación
+    private void discard(Hold hold) {
+        byToken.remove(hold.getToken(), hold);
+        if (hold.timeout != null) {
+            hold.timeout.cancel();
+        }
+        eventPublisher.publishEvent(
+                new SlotHoldChangedEvent(hold.getInstallationId(), hold.getStart(), hold.getEnd(), false));
+    }
+
+    private Optional<Hold> active(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        Hold hold = byToken.get(token);
+        if (hold == null || hold.getExpiresAt().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(hold);
+    }
+
+    // Retenciones que se solapan con [start, end). Como no se solapan entre sí, de las que empiezan
+    // antes de start solo la última puede hacerlo
+    private static List<Hold> overlapsIn(NavigableMap<LocalDateTime, Hold> holds,
+                                         LocalDateTime start, LocalDateTime end) {
+        List<Hold> overlapping = new ArrayList<>();
+        Map.Entry<LocalDateTime, Hold> before = holds.lowerEntry(start);
+        if (before != null && before.getValue().getEnd().isAfter(start)) {
+            overlapping.add(before.getValue());
+        }
+        overlapping.addAll(holds.subMap(start, true, end, false).values());
+        return overlapping;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static final class Hold {
+        private final String token;
+        private final Long userId;
+        private final Long installationId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final Instant expiresAt;
+        private volatile HashedTimingWheel.Timeout<String> timeout;
+
+        SlotHoldResponse toResponse() {
+            return new SlotHoldResponse(token, userId, installationId, start, end, expiresAt);
+        }
+    }
+}
@@ -3,12 +3,16 @@
 
 package com.aytodeporte.services;
 
+import com.aytodeporte.dto.PageResponse;
+import com.aytodeporte.dto.UserSummary;
 import com.aytodeporte.models.User;
 import com.aytodeporte.repositories.UserRepository;
 import com.aytodeporte.utils.BusinessException;
+import com.aytodeporte.utils.PageCursor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -100,6 +104,12 @@ public class UserService {
         return userRepository.findAll();
     }
 
+    // Página de usuarios por id, sin cargar entidades ni hashes de contraseña
+    public PageResponse<UserSummary> getUserPage(String cursor, int size) {
+        List<UserSummary> rows = userRepository.findSummaryPage(PageCursor.parse(cursor).id(), Limit.of(size + 1));
+        return PageResponse.of(rows, size, u -> PageCursor.encode(u.id()));
+    }
+
     // Borrado de usuario controlando restricciones de integridad (FK en reservas)
     public void deleteUser(Long userId) {
         if (userId == null) {
@@ -0,0 +1,201 @@
+// Sala de espera virtual para las aperturas de la ventana de reserva: control de admisión en memoria.
+// Mientras haya fichas y nadie esperando se pasa directamente; si no, se entrega un turno y se admite por orden.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.WaitingRoomStatus;
+import com.aytodeporte.utils.BusinessException;
+import com.aytodeporte.utils.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class WaitingRoom {
+
+    // Cada cuánto se barren los pases caducados (en ticks de admisión)
+    private static final int PURGE_EVERY_TICKS = 25;
+
+    private final boolean enabled;
+    private final double admissionsPerSecond;
+    private final int maxQueue;
+    private final long passTtlMillis;
+    private final long abandonAfterMillis;
+    private final TokenBucket bucket;
+
+    // Turnos por orden de llegada; la cabeza es el siguiente en entrar
+    private final Queue<Ticket> queue = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, Ticket> byToken = new ConcurrentHashMap<>();
+    // Un único turno por usuario: volver a pedir devuelve el que ya tiene
+    private final ConcurrentHashMap<String, Ticket> byUser = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextSeq = new AtomicLong();
+    private final AtomicInteger waiting = new AtomicInteger();
+    // Número de orden del último turno que ha salido de la cola
+    private volatile long headSeq;
+    private int ticks;
+
+    public WaitingRoom(@Value("${aytodeporte.waiting-room.enabled:true}") boolean enabled,
+                       @Value("${aytodeporte.waiting-room.admissions-per-second:20}") double admissionsPerSecond,
+                       @Value("${aytodeporte.waiting-room.burst:40}") int burst,
+                       @Value("${aytodeporte.waiting-room.max-queue:20000}") int maxQueue,
+                       @Value("${aytodeporte.waiting-room.pass-ttl:PT2M}") Duration passTtl,
+                       @Value("${aytodeporte.waiting-room.abandon-after:PT30S}") Duration abandonAfter) {
+        this.enabled = enabled;
+        this.admissionsPerSecond = admissionsPerSecond;
+        this.maxQueue = maxQueue;
+        this.passTtlMillis = passTtl.toMillis();
+        this.abandonAfterMillis = abandonAfter.toMillis();
+        this.bucket = new TokenBucket(admissionsPerSecond, burst);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Vacío si el usuario puede pasar ya; si no, el estado de su turno (nuevo o el que ya tenía)
+    public Optional<WaitingRoomStatus> admit(String user) {
+        long now = System.currentTimeMillis();
+
+        Ticket current = byUser.get(user);
+        if (current != null) {
+            if (current.isAdmitted(now)) {
+                return Optional.empty();
+            }
+            if (current.isWaiting()) {
+                current.lastSeenMillis = now;
+                return Optional.of(status(current, now));
+            }
+        }
+
+        // Sin cola se pasa directamente gastando una ficha; con cola nadie se adelanta
+        if (waiting.get() == 0 && bucket.tryAcquire()) {
+            return Optional.empty();
+        }
+        return Optional.of(status(enqueue(user, now), now));
+    }
+
+    // Consulta barata del turno: solo lee memoria y marca que el usuario sigue esperando
+    public WaitingRoomStatus poll(String token, String user) {
+        Ticket ticket = byToken.get(token);
+        if (ticket == null || !ticket.user.equals(user)) {
+            throw new BusinessException("El turno no existe o ha caducado");
+        }
+        long now = System.currentTimeMillis();
+        ticket.lastSeenMillis = now;
+        return status(ticket, now);
+    }
+
+    // Admite turnos de la cabeza de la cola mientras haya fichas; un único hilo programado
+    @Scheduled(fixedDelayString = "${aytodeporte.waiting-room.tick:PT0.2S}")
+    public void tick() {
+        long now = System.currentTimeMillis();
+
+        Ticket head;
+        while ((head = queue.peek()) != null) {
+            // Quien dejó de consultar pierde el turno sin gastar ficha
+            boolean abandoned = now - head.lastSeenMillis > abandonAfterMillis;
+            if (!abandoned && !bucket.tryAcquire()) {
+                break;
+            }
+            queue.poll();
+            waiting.decrementAndGet();
+            headSeq = head.seq;
+            if (abandoned) {
+                forget(head);
+            } else {
+                head.admittedUntilMillis = now + passTtlMillis;
+            }
+        }
+
+        if (++ticks % PURGE_EVERY_TICKS == 0) {
+            byUser.values().removeIf(t -> {
+                boolean expired = !t.isWaiting() && !t.isAdmitted(now);
+                if (expired) {
+                    byToken.remove(t.token);
+                }
+                return expired;
+            });
+        }
+    }
+
+    private Ticket enqueue(String user, long now) {
+        Ticket[] created = new Ticket[1];
+        Ticket ticket = byUser.compute(user, (k, old) -> {
+            if (old != null && (old.isWaiting() || old.isAdmitted(now))) {
+                return old;
+            }
+            if (waiting.get() >= maxQueue) {
+                throw new BusinessException("La sala de espera está llena, inténtalo de nuevo en unos minutos");
+            }
+            if (old != null) {
+                byToken.remove(old.token);
+            }
+            created[0] = new Ticket(UUID.randomUUID().toString(), user, nextSeq.incrementAndGet(), now);
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            byToken.put(ticket.token, ticket);
+            waiting.incrementAndGet();
+            queue.add(ticket);
+        }
+        return ticket;
+    }
+
+    private void forget(Ticket ticket) {
+        byUser.remove(ticket.user, ticket);
+        byToken.remove(ticket.token);
+    }
+
+    private WaitingRoomStatus status(Ticket ticket, long now) {
+        if (!ticket.isWaiting()) {
+            return new WaitingRoomStatus(ticket.token, ticket.isAdmitted(now), 0, 0,
+                    Instant.ofEpochMilli(ticket.admittedUntilMillis));
+        }
+
+        // Posición aproximada: incluye turnos abandonados que aún no se han descartado.
+        // El primero espera a la próxima ficha del cubo y cada uno de los siguientes una ficha más
+        long position = Math.max(1, ticket.seq - headSeq);
+        double waitSeconds = bucket.nanosUntilAvailable() / 1e9 + (position - 1) / admissionsPerSecond;
+        long retryAfter = Math.max(1, (long) Math.ceil(waitSeconds));
+        return new WaitingRoomStatus(ticket.token, false, position, retryAfter, null);
+    }
+
+    // ===================== TURNO EN MEMORIA =====================
+
+    private static final class Ticket {
+
+        private final String token;
+        private final String user;
+        private final long seq;
+        private volatile long lastSeenMillis;
+        // 0 mientras espera; después, fin del pase
+        private volatile long admittedUntilMillis;
+
+        private Ticket(String token, String user, long seq, long now) {
+            this.token = token;
+            this.user = user;
+            this.seq = seq;
+            this.lastSeenMillis = now;
+        }
+
+        boolean isWaiting() {
+            return admittedUntilMillis == 0;
+        }
+
+        boolean isAdmitted(long now) {
+            return admittedUntilMillis > now;
+        }
+    }
+}
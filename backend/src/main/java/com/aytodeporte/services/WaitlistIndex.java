@@ -0,0 +1,169 @@
+// Índice en memoria de la lista de espera pendiente, por instalación y tramo de 30 minutos.
+// Al cancelarse una reserva los candidatos salen de sus tramos sin recorrer la tabla lista_espera.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.WaitlistInterval;
+import com.aytodeporte.events.ListenerOrder;
+import com.aytodeporte.events.WaitlistChangedEvent;
+import com.aytodeporte.models.WaitlistStatus;
+import com.aytodeporte.repositories.WaitlistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WaitlistIndex {
+
+    private final WaitlistRepository waitlistRepository;
+
+    // Por instalación: inicio del tramo -> esperas que lo incluyen
+    private volatile Map<Long, NavigableMap<LocalDateTime, Set<WaitlistInterval>>> byInstallation =
+            new ConcurrentHashMap<>();
+
+    // Hasta que no se carga desde la BD la promoción debe consultar la tabla
+    private volatile boolean ready = false;
+
+    // Eventos llegados mientras se lee la BD; se reaplican sobre el índice nuevo antes de publicarlo.
+    // Null fuera de la carga. Protegido por changeLock junto con la sustitución del índice
+    private List<WaitlistChangedEvent> pending;
+    private final ReentrantLock changeLock = new ReentrantLock();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Esperas que incluyen algún tramo de [start, end), por orden de llegada y sin repetir
+    public List<WaitlistInterval> findCandidates(Long installationId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Set<WaitlistInterval>> slots = byInstallation.get(installationId);
+        if (slots == null) {
+            return List.of();
+        }
+
+        TreeSet<WaitlistInterval> found = new TreeSet<>(Comparator.comparing(WaitlistInterval::id));
+        slots.subMap(start, true, end, false).values().forEach(found::addAll);
+        return List.copyOf(found);
+    }
+
+    // Carga inicial desde la tabla lista_espera
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        changeLock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            changeLock.unlock();
+        }
+
+        Map<Long, NavigableMap<LocalDateTime, Set<WaitlistInterval>>> fresh = new ConcurrentHashMap<>();
+        List<WaitlistInterval> loaded;
+        try {
+            loaded = waitlistRepository.findIntervalsStartingAfter(WaitlistStatus.PENDING, LocalDateTime.now());
+        } catch (RuntimeException ex) {
+            // Sin carga la promoción sigue consultando la tabla: no hay que seguir acumulando eventos
+            changeLock.lock();
+            try {
+                pending = null;
+            } finally {
+                changeLock.unlock();
+            }
+            throw ex;
+        }
+        loaded.forEach(w -> add(fresh, w));
+
+        // Las esperas confirmadas durante la consulta pueden no estar en lo leído; reaplicarlas en
+        // orden es inocuo para las que sí estaban (añadir o quitar la misma espera otra vez)
+        int replayed;
+        changeLock.lock();
+        try {
+            replayed = pending.size();
+            pending.forEach(event -> apply(fresh, event));
+            pending = null;
+            byInstallation = fresh;
+            ready = true;
+        } finally {
+            changeLock.unlock();
+        }
+        if (replayed > 0) {
+            log.info("Índice de lista de espera: {} cambios llegados durante la carga reaplicados", replayed);
+        }
+        log.info("Índice de lista de espera cargado con {} esperas pendientes", loaded.size());
+    }
+
+    // Sincroniza el índice solo cuando la transacción que creó, asignó o retiró la espera ha hecho commit
+    @Order(ListenerOrder.ENGINES)
+    @TransactionalEventListener
+    public void onWaitlistChanged(WaitlistChangedEvent event) {
+        changeLock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            apply(byInstallation, event);
+        } finally {
+            changeLock.unlock();
+        }
+    }
+
+    private static void apply(Map<Long, NavigableMap<LocalDateTime, Set<WaitlistInterval>>> index,
+                              WaitlistChangedEvent event) {
+        WaitlistInterval entry = new WaitlistInterval(event.entryId(), event.installationId(),
+                event.userId(), event.start(), event.end());
+        if (event.status() == WaitlistStatus.PENDING) {
+            add(index, entry);
+            prune(index, event.installationId());
+        } else {
+            remove(index, entry);
+        }
+    }
+
+    private static void add(Map<Long, NavigableMap<LocalDateTime, Set<WaitlistInterval>>> index,
+                            WaitlistInterval w) {
+        NavigableMap<LocalDateTime, Set<WaitlistInterval>> slots =
+                index.computeIfAbsent(w.installationId(), id -> new ConcurrentSkipListMap<>());
+        for (LocalDateTime slot : ReservationService.slotStarts(w.start(), w.end())) {
+            slots.computeIfAbsent(slot, s -> ConcurrentHashMap.newKeySet()).add(w);
+        }
+    }
+
+    private static void remove(Map<Long, NavigableMap<LocalDateTime, Set<WaitlistInterval>>> index,
+                               WaitlistInterval w) {
+        NavigableMap<LocalDateTime, Set<WaitlistInterval>> slots = index.get(w.installationId());
+        if (slots == null) {
+            return;
+        }
+        for (LocalDateTime slot : ReservationService.slotStarts(w.start(), w.end())) {
+            slots.computeIfPresent(slot, (s, waiting) -> {
+                waiting.remove(w);
+                return waiting.isEmpty() ? null : waiting;
+            });
+        }
+    }
+
+    // Poda de tramos ya pasados para que el índice no crezca con esperas que nunca se asignaron
+    private static void prune(Map<Long, NavigableMap<LocalDateTime, Set<WaitlistInterval>>> index,
+                              Long installationId) {
+        NavigableMap<LocalDateTime, Set<WaitlistInterval>> slots = index.get(installationId);
+        if (slots != null) {
+            slots.headMap(LocalDateTime.now()).clear();
+        }
+    }
+}
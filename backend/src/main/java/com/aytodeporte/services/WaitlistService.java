@@ -0,0 +1,238 @@
+// Servicio de negocio de la lista de espera: alta, baja, consulta y asignación automática de tramos.
+// Al cancelarse una reserva el primer usuario en espera que pueda ocupar el tramo lo recibe en la misma transacción.
+
+package com.aytodeporte.services;
+
+import com.aytodeporte.dto.WaitlistInterval;
+import com.aytodeporte.dto.WaitlistResponse;
+import com.aytodeporte.events.ReservationChangedEvent;
+import com.aytodeporte.events.WaitlistChangedEvent;
+import com.aytodeporte.models.Installation;
+import com.aytodeporte.models.Reservation;
+import com.aytodeporte.models.ReservationStatus;
+import com.aytodeporte.models.User;
+import com.aytodeporte.models.WaitlistEntry;
+import com.aytodeporte.models.WaitlistStatus;
+import com.aytodeporte.repositories.ReservationRepository;
+import com.aytodeporte.repositories.SlotClaimRepository;
+import com.aytodeporte.repositories.WaitlistRepository;
+import com.aytodeporte.utils.BusinessException;
+import com.aytodeporte.utils.CodeGenerator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+    // Esperas pendientes simultáneas por usuario
+    private static final int MAX_PENDING_PER_USER = 5;
+
+    // Candidatos que se comprueban contra la BD en una cancelación; acota su latencia
+    private static final int MAX_PROMOTION_ATTEMPTS = 5;
+
+    private final WaitlistRepository waitlistRepository;
+    private final WaitlistIndex waitlistIndex;
+    private final ReservationRepository reservationRepository;
+    private final SlotClaimRepository slotClaimRepository;
+    private final UserService userService;
+    private final InstallationService installationService;
+    private final BlockSnapshot blockSnapshot;
+    private final InstallationOverlapIndex overlapIndex;
+    private final SlotHoldManager slotHoldManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Apunta al usuario a la espera de un tramo que ahora mismo está ocupado
+    @Transactional
+    public WaitlistResponse join(Long userId, Long installationId, LocalDateTime start, int durationMinutes) {
+        ReservationService.validateDuration(durationMinutes);
+        ReservationService.validateStartTime(start, durationMinutes);
+        ReservationService.validateReservationWindow(start);
+
+        User user = userService.getByIdOrThrow(userId);
+        Installation installation = installationService.getByIdOrThrow(installationId);
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+
+        // Una cancelación no levanta un bloqueo: esperar ese tramo no tiene sentido
+        if (isBlocked(installation, start, end)) {
+            throw new BusinessException("No se puede esperar un horario bloqueado");
+        }
+
+        boolean occupied = overlapIndex.isReady()
+                ? overlapIndex.findOverlap(installationId, start, end).isPresent()
+                : !reservationRepository.findOverlappingByInstallation(installation,
+                        ReservationStatus.CONFIRMED, ReservationService.earliestStart(start), start, end).isEmpty();
+        if (!occupied && slotHoldManager.findOverlapByOthers(installationId, userId, start, end).isEmpty()) {
+            throw new BusinessException("El horario está libre: puedes reservarlo directamente");
+        }
+
+        if (hasUserOverlap(user, start, end)) {
+            throw new BusinessException("Ya tienes otra reserva en un horario solapado");
+        }
+        if (waitlistRepository.existsByUserAndInstallationAndStartAndStatus(
+                user, installation, start, WaitlistStatus.PENDING)) {
+            throw new BusinessException("Ya estás en la lista de espera de ese horario");
+        }
+        if (waitlistRepository.countByUserAndStatusAndStartAfter(
+                user, WaitlistStatus.PENDING, LocalDateTime.now()) >= MAX_PENDING_PER_USER) {
+            throw new BusinessException("No puedes estar en más de "
+                    + MAX_PENDING_PER_USER + " listas de espera a la vez");
+        }
+
+        WaitlistEntry entry = WaitlistEntry.builder()
+                .user(user)
+                .installation(installation)
+                .start(start)
+                .end(end)
+                .status(WaitlistStatus.PENDING)
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        WaitlistEntry saved = waitlistRepository.save(entry);
+        eventPublisher.publishEvent(WaitlistChangedEvent.of(saved));
+        return toResponse(saved);
+    }
+
+    // Retira al usuario de una espera que aún no se ha asignado
+    @Transactional
+    public void leave(Long entryId, Long userId) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId)
+                .orElseThrow(() -> new BusinessException("No se ha encontrado la espera con ID " + entryId));
+
+        if (!entry.getUser().getId().equals(userId)) {
+            throw new BusinessException("No tienes permiso para retirar esta espera");
+        }
+        if (entry.getStatus() != WaitlistStatus.PENDING) {
+            throw new BusinessException("La espera ya no está pendiente");
+        }
+
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        eventPublisher.publishEvent(WaitlistChangedEvent.of(entry));
+    }
+
+    @Transactional(readOnly = true)
+    public List<WaitlistResponse> getUpcomingByUser(Long userId) {
+        User user = userService.getByIdOrThrow(userId);
+        return waitlistRepository.findUpcomingByUser(user, LocalDateTime.now())
+                .stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    // Asigna el tramo que deja libre una reserva cancelada al primer usuario en espera que pueda ocuparlo.
+    // Debe llamarse dentro de la transacción de la cancelación, después de liberar sus tramos.
+    public Optional<Reservation> promote(Reservation cancelled) {
+        Installation installation = cancelled.getInstallation();
+        LocalDateTime freedStart = cancelled.getStart();
+        LocalDateTime freedEnd = cancelled.getEnd();
+
+        // Con el índice cargado los candidatos salen de los tramos liberados, sin consultar la tabla
+        List<WaitlistInterval> candidates = waitlistIndex.isReady()
+                ? waitlistIndex.findCandidates(installation.getId(), freedStart, freedEnd)
+                : waitlistRepository.findOverlapping(installation, WaitlistStatus.PENDING,
+                        ReservationService.earliestStart(freedStart), freedStart, freedEnd);
+
+        LocalDateTime minStart = LocalDateTime.now().plusHours(ReservationService.MIN_HOURS_BEFORE);
+        int attempts = 0;
+        for (WaitlistInterval candidate : candidates) {
+            // Filtros en memoria: no cuentan como intento
+            if (!candidate.start().isAfter(minStart)
+                    || isBlocked(installation, candidate.start(), candidate.end())
+                    || slotHoldManager.findOverlapByOthers(installation.getId(), candidate.userId(),
+                            candidate.start(), candidate.end()).isPresent()) {
+                continue;
+            }
+            if (attempts++ == MAX_PROMOTION_ATTEMPTS) {
+                break;
+            }
+
+            Optional<Reservation> promoted = tryPromote(candidate.id(), installation);
+            if (promoted.isPresent()) {
+                return promoted;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // ===================== ASIGNACIÓN PRIVADA =====================
+
+    private Optional<Reservation> tryPromote(Long entryId, Installation installation) {
+        WaitlistEntry entry = waitlistRepository.findById(entryId).orElse(null);
+        if (entry == null || entry.getStatus() != WaitlistStatus.PENDING) {
+            return Optional.empty();
+        }
+
+        User user = entry.getUser();
+        LocalDateTime start = entry.getStart();
+        LocalDateTime end = entry.getEnd();
+
+        // Consulta a la BD y no al índice de solapes: este aún incluye la reserva recién cancelada,
+        // mientras que la consulta ya ve su nuevo estado dentro de esta transacción
+        if (!reservationRepository.findOverlappingByInstallation(installation, ReservationStatus.CONFIRMED,
+                ReservationService.earliestStart(start), start, end).isEmpty()
+                || hasUserOverlap(user, start, end)) {
+            return Optional.empty();
+        }
+
+        int durationMinutes = (int) Duration.between(start, end).toMinutes();
+        Reservation saved = reservationRepository.save(Reservation.builder()
+                .user(user)
+                .installation(installation)
+                .start(start)
+                .end(end)
+                .durationMinutes(durationMinutes)
+                .amount(ReservationService.calculateAmount(durationMinutes))
+                .code(CodeGenerator.generateReservationCode())
+                .status(ReservationStatus.CONFIRMED)
+                .verifiedAt(null)
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        // Un tramo ocupado por una reserva concurrente no debe invalidar la cancelación:
+        // se deshace solo esta asignación y se prueba con el siguiente candidato
+        if (!slotClaimRepository.tryClaim(installation.getId(), saved.getId(),
+                ReservationService.slotStarts(start, end))) {
+            reservationRepository.delete(saved);
+            return Optional.empty();
+        }
+
+        entry.setStatus(WaitlistStatus.ASSIGNED);
+        entry.setReservation(saved);
+        eventPublisher.publishEvent(ReservationChangedEvent.of(saved));
+        eventPublisher.publishEvent(WaitlistChangedEvent.of(entry));
+        return Optional.of(saved);
+    }
+
+    private boolean isBlocked(Installation installation, LocalDateTime start, LocalDateTime end) {
+        return !blockSnapshot.findGlobal(start, end).isEmpty()
+                || !blockSnapshot.findByInstallation(installation, start, end).isEmpty();
+    }
+
+    private boolean hasUserOverlap(User user, LocalDateTime start, LocalDateTime end) {
+        return !reservationRepository.findOverlappingByUser(user, ReservationStatus.CONFIRMED,
+                ReservationService.earliestStart(start), start, end).isEmpty();
+    }
+
+    // ===================== MAPPER A DTO =====================
+
+    private WaitlistResponse toResponse(WaitlistEntry w) {
+        return new WaitlistResponse(
+                w.getId(),
+                w.getUser().getId(),
+                w.getInstallation().getId(),
+                w.getInstallation().getName(),
+                w.getStart(),
+                w.getEnd(),
+                w.getStatus().name(),
+                w.getReservation() != null ? w.getReservation().getId() : null,
+                w.getCreatedAt()
+        );
+    }
+}
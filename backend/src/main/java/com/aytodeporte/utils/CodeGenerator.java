@@ -1,13 +1,18 @@
 // Generador de códigos numéricos para reservas y otros usos internos.
-// Utiliza SecureRandom para obtener valores seguros e impredecibles.
+// Utiliza SecureRandom (DRBG) para obtener valores seguros e impredecibles.
 
 package com.aytodeporte.utils;
 
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 public class CodeGenerator {
 
-    private static final SecureRandom RANDOM = new SecureRandom();
+    // DRBG es Java puro y se siembra una vez: el NativePRNG por defecto en Linux lee /dev/urandom
+    // dentro de un bloque synchronized. engineNextBytes de DRBG también es synchronized, así que con
+    // hilos virtuales se sigue fijando el portador mientras se genera; lo que se gana es que ya no hay
+    // E/S de fichero bloqueante mientras se retiene el monitor
+    private static final SecureRandom RANDOM = createRandom();
 
     // Genera un código numérico de la longitud indicada
     public static String generateNumericCode(int length) {
@@ -22,4 +27,12 @@ public class CodeGenerator {
     public static String generateReservationCode() {
         return generateNumericCode(6);
     }
+
+    private static SecureRandom createRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException ex) {
+            return new SecureRandom();
+        }
+    }
 }
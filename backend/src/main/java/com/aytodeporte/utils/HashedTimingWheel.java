@@ -0,0 +1,102 @@
+// Rueda temporal con cubos (hashed timing wheel) para caducar elementos sin recorrerlos todos.
+// Programar y cancelar cuestan O(1); cada avance solo revisa los cubos de los ticks transcurridos.
+
+package com.aytodeporte.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+public class HashedTimingWheel<T> {
+
+    private final long tickMillis;
+    private final ArrayDeque<Timeout<T>>[] buckets;
+    private final Consumer<T> onExpire;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Último tick procesado, contado desde startMillis
+    private final long startMillis;
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis, Consumer<T> onExpire) {
+        if (tickMillis <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMillis y wheelSize deben ser positivos");
+        }
+        this.tickMillis = tickMillis;
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.startMillis = startMillis;
+        this.onExpire = onExpire;
+    }
+
+    // Programa la caducidad del elemento; nunca antes del siguiente tick
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        lock.lock();
+        try {
+            long deadlineTick = Math.max(
+                    (deadlineMillis - startMillis + tickMillis - 1) / tickMillis,
+                    currentTick + 1);
+            Timeout<T> timeout = new Timeout<>(item, deadlineTick);
+            buckets[(int) (deadlineTick % buckets.length)].add(timeout);
+            return timeout;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Avanza la rueda hasta el instante indicado y notifica los elementos caducados
+    public void advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+
+        lock.lock();
+        try {
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            // Tras una pausa larga basta con una vuelta completa: cada cubo se revisa una vez
+            long firstTick = Math.max(currentTick + 1, targetTick - buckets.length + 1);
+
+            for (long tick = firstTick; tick <= targetTick; tick++) {
+                ArrayDeque<Timeout<T>> bucket = buckets[(int) (tick % buckets.length)];
+                int pending = bucket.size();
+                for (int i = 0; i < pending; i++) {
+                    Timeout<T> timeout = bucket.poll();
+                    if (timeout.cancelled) {
+                        continue;
+                    }
+                    if (timeout.deadlineTick <= targetTick) {
+                        timeout.cancelled = true;
+                        expired.add(timeout.item);
+                    } else {
+                        bucket.add(timeout);
+                    }
+                }
+            }
+            currentTick = Math.max(currentTick, targetTick);
+        } finally {
+            lock.unlock();
+        }
+
+        // Las notificaciones se hacen fuera del cerrojo
+        expired.forEach(onExpire);
+    }
+
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+
+        // Cancelación perezosa: el elemento se descarta cuando la rueda pasa por su cubo
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+// Cursor de paginación por clave (keyset): el último (inicio, id) o el último id servido.
+// Viaja en Base64 URL para que el cliente lo devuelva tal cual, sin interpretarlo.
+
+package com.aytodeporte.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record PageCursor(LocalDateTime start, long id) {
+
+    // Posición anterior a cualquier fila: DATETIME mínimo de MySQL e id 0
+    private static final PageCursor FIRST = new PageCursor(LocalDateTime.of(1000, 1, 1, 0, 0), 0);
+
+    private static final String SEPARATOR = "|";
+
+    // Sin cursor se empieza por el principio
+    public static PageCursor parse(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                return new PageCursor(FIRST.start, Long.parseLong(raw));
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BusinessException("Cursor de paginación no válido");
+        }
+    }
+
+    public static String encode(LocalDateTime start, long id) {
+        return encodeRaw(start + SEPARATOR + id);
+    }
+
+    public static String encode(long id) {
+        return encodeRaw(Long.toString(id));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
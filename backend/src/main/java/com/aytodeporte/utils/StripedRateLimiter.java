@@ -0,0 +1,58 @@
+// Limitador de peticiones por clave con cubos de fichas repartidos en franjas (GCRA sobre un AtomicLongArray).
+// Cada clave cae en una franja por su hash: sin mapas ni objetos por cliente, sin bloqueos y sin reservar memoria.
+
+package com.aytodeporte.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class StripedRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int mask;
+
+    // Por franja: instante (System.nanoTime) en el que su cubo vuelve a estar lleno
+    private final AtomicLongArray theoreticalArrival;
+
+    // stripes se redondea a potencia de dos. Dos claves en la misma franja comparten cubo:
+    // el límite solo puede volverse más estricto, nunca más permisivo
+    public StripedRateLimiter(double ratePerSecond, int burst, int stripes) {
+        if (ratePerSecond <= 0 || burst <= 0 || stripes <= 0) {
+            throw new IllegalArgumentException("ratePerSecond, burst y stripes deben ser positivos");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.mask = size - 1;
+        this.theoreticalArrival = new AtomicLongArray(size);
+
+        long now = System.nanoTime();
+        for (int i = 0; i < size; i++) {
+            theoreticalArrival.set(i, now);
+        }
+    }
+
+    // 0 si la petición pasa; si no, nanosegundos hasta que haya una ficha para esa clave
+    public long tryAcquire(String key) {
+        int stripe = stripe(key);
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get(stripe);
+            long base = tat - now > 0 ? tat : now;
+            long ahead = base - now;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(stripe, tat, base + intervalNanos)) {
+                return 0L;
+            }
+        }
+    }
+
+    private int stripe(String key) {
+        // String guarda su hash: no se recorre la clave en cada petición
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
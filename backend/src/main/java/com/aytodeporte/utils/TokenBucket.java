@@ -0,0 +1,46 @@
+// Cubo de fichas sin bloqueos basado en GCRA: todo el estado es un único instante teórico de llegada.
+// Admite ráfagas de hasta 'burst' peticiones y luego 'ratePerSecond' de forma sostenida.
+
+package com.aytodeporte.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucket {
+
+    // Separación entre fichas y margen que permite adelantar hasta burst - 1 fichas
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    // Instante (System.nanoTime) en el que el cubo vuelve a estar lleno
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        if (ratePerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("ratePerSecond y burst deben ser positivos");
+        }
+        this.intervalNanos = Math.max(1L, (long) (1_000_000_000L / ratePerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    // Consume una ficha si la hay; nunca espera
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat - now > 0 ? tat : now;
+            if (base - now > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    // Tiempo hasta que vuelva a haber una ficha disponible (0 si ya la hay)
+    public long nanosUntilAvailable() {
+        long wait = theoreticalArrival.get() - System.nanoTime() - toleranceNanos;
+        return Math.max(0L, wait);
+    }
+}
@@ -26,7 +26,15 @@ async function apiFetch(path, options = {}) {
     headers["Authorization"] = `Bearer ${token}`;
   }
 
-  const response = await fetch(url, { ...options, headers });
+  let response = await fetch(url, { ...options, headers });
+
+  // Sala de espera: se sondea el turno hasta que se admite y se repite la petición
+  while (response.status === 503) {
+    const queued = await response.clone().json().catch(() => null);
+    if (!queued || !queued.ticket) break;
+    await waitForAdmission(queued.ticket, headers, queued.retryAfterSeconds);
+    response = await fetch(url, { ...options, headers });
+  }
 
   if (!response.ok) {
     let errorText = "Error en la petición";
@@ -53,6 +61,26 @@ async function apiFetch(path, options = {}) {
   return response.json();
 }
 
+async function waitForAdmission(ticket, headers, retryAfterSeconds) {
+  let delay = retryAfterSeconds || 1;
+  while (true) {
+    await new Promise(resolve => setTimeout(resolve, Math.min(delay, 10) * 1000));
+    const res = await fetch(`${API_BASE_URL}/waiting-room/${ticket}`, { headers });
+    if (!res.ok) return;
+    const status = await res.json();
+    if (status.admitted) return;
+    delay = status.retryAfterSeconds || 1;
+  }
+}
+
+// Parámetros de los listados paginados por cursor; sin cursor se pide la primera página
+function pageParams(cursor, size) {
+  const params = new URLSearchParams();
+  if (cursor) params.set("cursor", cursor);
+  if (size) params.set("size", size);
+  return params.toString();
+}
+
 /* ==== Instalaciones (consulta pública y común) ==== */
 
 async function apiGetInstallations() {
@@ -117,15 +145,65 @@ async function apiGetDailyAvailability(installationId, date) {
   return apiFetch(`/reservations/availability?${params.toString()}`, { method: "GET" });
 }
 
+async function apiGetAvailabilityGrid(type, from, to) {
+  // GET /api/reservations/availability/grid: todas las instalaciones activas de un tipo en un rango
+  const params = new URLSearchParams({ type, from, to });
+  return apiFetch(`/reservations/availability/grid?${params.toString()}`, { method: "GET" });
+}
+
 async function apiCreateReservation(userId, installationId, start, duration) {
   const params = new URLSearchParams({ userId, installationId, start, duration });
   return apiFetch(`/reservations?${params.toString()}`, { method: "POST" });
 }
 
+async function apiHoldSlot(userId, installationId, start, duration) {
+  // POST /api/reservations/holds: retiene el tramo unos minutos mientras se confirma
+  const params = new URLSearchParams({ userId, installationId, start, duration });
+  return apiFetch(`/reservations/holds?${params.toString()}`, { method: "POST" });
+}
+
+async function apiConfirmHold(token, userId) {
+  const params = new URLSearchParams({ userId });
+  return apiFetch(`/reservations/holds/${token}/confirm?${params.toString()}`, { method: "POST" });
+}
+
+async function apiReleaseHold(token, userId) {
+  const params = new URLSearchParams({ userId });
+  return apiFetch(`/reservations/holds/${token}?${params.toString()}`, { method: "DELETE" });
+}
+
+async function apiJoinWaitlist(userId, installationId, start, duration) {
+  // POST /api/reservations/waitlist: si se cancela la reserva, el tramo se asigna automáticamente
+  const params = new URLSearchParams({ userId, installationId, start, duration });
+  return apiFetch(`/reservations/waitlist?${params.toString()}`, { method: "POST" });
+}
+
+async function apiGetUserWaitlist(userId) {
+  return apiFetch(`/reservations/waitlist/user/${userId}`, { method: "GET" });
+}
+
+async function apiLeaveWaitlist(entryId, userId) {
+  const params = new URLSearchParams({ userId });
+  return apiFetch(`/reservations/waitlist/${entryId}?${params.toString()}`, { method: "DELETE" });
+}
+
+async function apiCreateReservationSeries(seriesRequest) {
+  // POST /api/reservations/series (ADMIN): devuelve el resultado de cada ocurrencia
+  return apiFetch("/reservations/series", {
+    method: "POST",
+    body: JSON.stringify(seriesRequest)
+  });
+}
+
 async function apiGetUserReservations(userId) {
   return apiFetch(`/reservations/user/${userId}`, { method: "GET" });
 }
 
+async function apiGetInstallationReservationsPage(installationId, cursor, size) {
+  // GET /api/reservations/installation/{id}/page: reservas confirmadas por (inicio, id)
+  return apiFetch(`/reservations/installation/${installationId}/page?${pageParams(cursor, size)}`, { method: "GET" });
+}
+
 async function apiCancelReservation(reservationId, userId, admin = false) {
   const params = new URLSearchParams({ userId, admin });
   return apiFetch(`/reservations/${reservationId}/cancel?${params.toString()}`, { method: "POST" });
@@ -149,11 +227,32 @@ async function apiGetBlocks(installationId) {
   return apiFetch(path, { method: "GET" });
 }
 
+async function apiGetBlocksPage(cursor, size) {
+  // GET /api/blocks/page: página de bloqueos; nextCursor pide la siguiente (null = no hay más)
+  return apiFetch(`/blocks/page?${pageParams(cursor, size)}`, { method: "GET" });
+}
+
 async function apiDeleteBlock(blockId) {
   // DELETE /api/blocks/{id}
   return apiFetch(`/blocks/${blockId}`, { method: "DELETE" });
 }
 
+async function apiCreateBlockRule(ruleRequest) {
+  // POST /api/blocks/rules: bloqueo recurrente (semanal, mensual o lista de fechas)
+  return apiFetch("/blocks/rules", {
+    method: "POST",
+    body: JSON.stringify(ruleRequest)
+  });
+}
+
+async function apiGetBlockRules() {
+  return apiFetch("/blocks/rules", { method: "GET" });
+}
+
+async function apiDeleteBlockRule(ruleId) {
+  return apiFetch(`/blocks/rules/${ruleId}`, { method: "DELETE" });
+}
+
 /* ==== Instalaciones (ADMIN: crear, actualizar, eliminar) ==== */
 
 async function apiCreateInstallation(installationRequest) {
@@ -184,6 +283,26 @@ async function apiGetUsers() {
   return apiFetch("/users", { method: "GET" });
 }
 
+async function apiGetUsersPage(cursor, size) {
+  // GET /api/users/page: página de usuarios ordenados por id
+  return apiFetch(`/users/page?${pageParams(cursor, size)}`, { method: "GET" });
+}
+
 async function apiDeleteUser(id) {
   return apiFetch(`/users/${id}`, { method: "DELETE" });
 }
+
+/* ==== Informes de ocupación e ingresos (ADMIN) ==== */
+async function apiGetMonthlyOccupancy(year, month, installationId) {
+  // GET /api/reports/occupancy/monthly: totales del mes por instalación, día y franja horaria
+  const params = new URLSearchParams({ year, month });
+  if (installationId) params.set("installationId", installationId);
+  return apiFetch(`/reports/occupancy/monthly?${params.toString()}`, { method: "GET" });
+}
+
+async function apiGetYearlyOccupancy(year, installationId) {
+  // GET /api/reports/occupancy/yearly: totales del año por instalación, mes y franja horaria
+  const params = new URLSearchParams({ year });
+  if (installationId) params.set("installationId", installationId);
+  return apiFetch(`/reports/occupancy/yearly?${params.toString()}`, { method: "GET" });
+}